@@ -0,0 +1,125 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// One web API client for LoadTest. Sends a mix of requests like a stats website would,
+// paced to a fixed rate, and records latency and failures per route.
+public final class ApiClient implements Runnable {
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final List<String> usernames;
+    private final long intervalNanos;
+    private final Random random;
+    private final AtomicBoolean running;
+    private final AtomicBoolean measuring;
+    private final AtomicLong requests;
+
+    private final Map<String, LatencySamples> latencies = new LinkedHashMap<>();
+    private final Map<String, Integer> errors = new LinkedHashMap<>();
+    private final Map<String, Integer> busy = new LinkedHashMap<>();
+
+    public ApiClient(String baseUrl, List<String> usernames, double requestsPerSecond, long seed,
+                     AtomicBoolean running, AtomicBoolean measuring, AtomicLong requests) {
+        this.baseUrl = baseUrl;
+        this.usernames = usernames;
+        this.intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.random = new Random(seed);
+        this.running = running;
+        this.measuring = measuring;
+        this.requests = requests;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running.get()) {
+            String route = pickRoute();
+            long start = System.nanoTime();
+            boolean ok;
+            int status = 0;
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path(route)))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                // Failed lookups are reported in the body with a 200, so check both
+                ok = response.statusCode() == 200 && !response.body().contains("\"success\":false");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            requests.incrementAndGet();
+
+            if (measuring.get()) {
+                latencies.computeIfAbsent(route, key -> new LatencySamples()).add(elapsed);
+                if (!ok) {
+                    errors.merge(route, 1, Integer::sum);
+                }
+                if (status == 503) {
+                    busy.merge(route, 1, Integer::sum);
+                }
+            }
+
+            next += intervalNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                // Behind schedule, so the server is the bottleneck; do not burst to catch up
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    // Mostly profile lookups, which is what the player pages of a stats site send
+    private String pickRoute() {
+        int roll = random.nextInt(100);
+        if (roll < 45) return "player";
+        if (roll < 50) return "player-unknown";
+        if (roll < 65) return "players-online";
+        if (roll < 80) return "leaderboard";
+        if (roll < 90) return "players-all";
+        if (roll < 95) return "server-stats";
+        return "health";
+    }
+
+    private String path(String route) {
+        return switch (route) {
+            case "player" -> "/api/player/" + usernames.get(random.nextInt(usernames.size()));
+            case "player-unknown" -> "/api/player/nobody" + random.nextInt(1_000_000);
+            case "players-online" -> "/api/players/online";
+            case "leaderboard" -> "/api/leaderboard/" + (random.nextBoolean() ? "blocks_broken" : "playtime") + "?limit=10";
+            case "players-all" -> "/api/players/all?sort=playtime&limit=50";
+            case "server-stats" -> "/api/server/stats";
+            default -> "/api/health";
+        };
+    }
+
+    public Map<String, LatencySamples> getLatencies() {
+        return latencies;
+    }
+
+    public Map<String, Integer> getErrors() {
+        return errors;
+    }
+
+    public Map<String, Integer> getBusy() {
+        return busy;
+    }
+}
@@ -0,0 +1,88 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.lowkeycraft.stats.database.DatabaseManager;
+import net.lowkeycraft.stats.database.PlayerProfile;
+import net.lowkeycraft.stats.database.Stat;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// DatabaseManager entry points as the listeners and the web API call them, on a plugin booted by
+// PluginHarness against a temp SQLite file with 100 players online.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DatabaseManagerBenchmark {
+
+    private static final int PLAYERS = 100;
+
+    private PluginHarness harness;
+    private DatabaseManager database;
+    private PlayerMock[] players;
+    private Location[] positions;
+    private int index;
+    private long moves;
+
+    @Setup
+    public void setup() throws Exception {
+        harness = PluginHarness.start(Map.of());
+        database = harness.getPlugin().getDatabaseManager();
+        List<PlayerMock> joined = harness.join(PLAYERS);
+        players = joined.toArray(new PlayerMock[0]);
+
+        // Two spots far enough apart that every move passes the live data position threshold
+        positions = new Location[] {
+            new Location(harness.getWorld(), 0, 64, 0),
+            new Location(harness.getWorld(), 8, 64, 8)
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        harness.stop();
+    }
+
+    // Main thread cost of one tracked event; the write happens later in the stat flush
+    @Benchmark
+    public void incrementStat() {
+        database.incrementStat(next().getUniqueId(), Stat.BLOCKS_BROKEN, 1);
+    }
+
+    @Benchmark
+    public void updateLiveDataChanged() {
+        PlayerMock player = next();
+        player.setLocation(positions[(int) (moves++ / PLAYERS % 2)]);
+        database.updateLiveData(player);
+    }
+
+    // Nothing moved past a threshold, so no row is written
+    @Benchmark
+    public void updateLiveDataUnchanged() {
+        database.updateLiveData(next());
+    }
+
+    @Benchmark
+    public PlayerProfile getPlayerDataCached() {
+        return database.getPlayerData(next().getName());
+    }
+
+    @Benchmark
+    public PlayerProfile getPlayerDataUncached() {
+        PlayerMock player = next();
+        database.getProfileCache().invalidate(player.getUniqueId());
+        return database.getPlayerData(player.getName());
+    }
+
+    private PlayerMock next() {
+        PlayerMock player = players[index];
+        index = (index + 1) % PLAYERS;
+        return player;
+    }
+}
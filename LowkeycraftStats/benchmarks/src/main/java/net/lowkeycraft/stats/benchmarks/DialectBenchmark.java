@@ -0,0 +1,110 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import net.lowkeycraft.stats.database.SQLiteProfile;
+import net.lowkeycraft.stats.database.SqlDialect;
+import net.lowkeycraft.stats.database.Stat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Batched stat flushes through each SqlDialect: SQLite with the database.sqlite profile, and H2 in
+// MySQL mode standing in for a MySQL server. Timing only; SqlDialectTest checks that the SQL is right.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DialectBenchmark {
+
+    private static final int PLAYERS = 200;
+
+    @Param({"sqlite", "mysql"})
+    public String dialect;
+
+    private final String[] uuids = new String[PLAYERS];
+
+    private SqlDialect sql;
+    private File databaseFile;
+    private Connection connection;
+    private PreparedStatement flush;
+
+    @Setup
+    public void setup() throws Exception {
+        sql = SqlDialect.forType(dialect);
+
+        if (dialect.equals("sqlite")) {
+            databaseFile = File.createTempFile("lowkeycraft-dialect", ".db");
+            Properties properties = new SQLiteProfile("WAL", "NORMAL", -16000, 268435456L, 5000, "MEMORY").writerProperties();
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath(), properties);
+        } else {
+            connection = DriverManager.getConnection("jdbc:h2:mem:lowkeycraft;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE players (uuid VARCHAR(36) PRIMARY KEY, username VARCHAR(16) NOT NULL, " +
+                "first_join BIGINT NOT NULL, last_seen BIGINT NOT NULL, playtime BIGINT DEFAULT 0, is_online BOOLEAN DEFAULT FALSE)");
+
+            StringBuilder statsTable = new StringBuilder("CREATE TABLE player_stats (uuid VARCHAR(36) PRIMARY KEY");
+            for (Stat stat : Stat.values()) {
+                statsTable.append(", ").append(stat.getColumn()).append(stat.isFractional() ? " DOUBLE DEFAULT 0" : " INT DEFAULT 0");
+            }
+            stmt.execute(statsTable.append(')').toString());
+        }
+
+        for (int i = 0; i < PLAYERS; i++) {
+            uuids[i] = UUID.randomUUID().toString();
+        }
+        connection.setAutoCommit(false);
+        flush = connection.prepareStatement(flushStatsSql());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        flush.close();
+        if (databaseFile == null) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SHUTDOWN");
+            }
+        }
+        connection.close();
+        if (databaseFile != null) {
+            new File(databaseFile.getAbsolutePath() + "-wal").delete();
+            new File(databaseFile.getAbsolutePath() + "-shm").delete();
+            databaseFile.delete();
+        }
+    }
+
+    // One stat flush cycle: a delta for every online player, one batch, one commit. The players rows
+    // exist, so DatabaseManager runs no ensure step
+    @Benchmark
+    public int flushBatch() throws SQLException {
+        for (String uuid : uuids) {
+            flush.setString(1, uuid);
+            for (Stat stat : Stat.values()) {
+                flush.setLong(stat.ordinal() + 2, 1);
+            }
+            flush.addBatch();
+        }
+        int rows = flush.executeBatch().length;
+        connection.commit();
+        return rows;
+    }
+
+    private String flushStatsSql() {
+        List<String> statColumns = new ArrayList<>();
+        for (Stat stat : Stat.values()) {
+            statColumns.add(stat.getColumn());
+        }
+        List<String> columns = new ArrayList<>();
+        columns.add("uuid");
+        columns.addAll(statColumns);
+        return sql.upsert("player_stats", "uuid", columns, List.of(), statColumns);
+    }
+}
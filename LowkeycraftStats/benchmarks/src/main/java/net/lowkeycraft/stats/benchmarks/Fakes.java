@@ -0,0 +1,52 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+// Minimal stand-ins for Bukkit interfaces, enough for code that only reads ids and names
+public final class Fakes {
+
+    private Fakes() {
+    }
+
+    public static Player player(UUID uuid, String name) {
+        return (Player) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] {Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getName" -> name;
+                case "hashCode" -> uuid.hashCode();
+                case "equals" -> proxy == args[0];
+                case "toString" -> "FakePlayer[" + name + "]";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    public static World world(String name) {
+        return (World) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] {World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName" -> name;
+                case "hashCode" -> name.hashCode();
+                case "equals" -> proxy == args[0];
+                case "toString" -> "FakeWorld[" + name + "]";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    // A mob killed by the given player, as EntityDeathEvent hands it to the listener
+    public static LivingEntity mob(Player killer) {
+        UUID uuid = UUID.randomUUID();
+        return (LivingEntity) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] {LivingEntity.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getKiller" -> killer;
+                case "hashCode" -> uuid.hashCode();
+                case "equals" -> proxy == args[0];
+                case "toString" -> "FakeMob[" + uuid + "]";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
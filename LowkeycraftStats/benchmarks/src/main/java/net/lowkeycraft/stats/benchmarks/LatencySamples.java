@@ -0,0 +1,58 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import java.util.Arrays;
+
+// Every recorded latency in nanoseconds, for exact percentiles at the end of a load run.
+// Not thread safe; each thread records into its own instance and they are merged afterwards.
+public final class LatencySamples {
+
+    private long[] values = new long[1024];
+    private int size;
+    private boolean sorted = true;
+
+    public void add(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+        sorted = false;
+    }
+
+    public void addAll(LatencySamples other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.values[i]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        sorted = true;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    // Nearest-rank percentile, p between 0 and 100
+    public long percentile(double p) {
+        if (size == 0) return 0;
+        if (!sorted) {
+            Arrays.sort(values, 0, size);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(p / 100 * size);
+        return values[Math.max(0, Math.min(size, rank) - 1)];
+    }
+
+    public long max() {
+        return percentile(100);
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}
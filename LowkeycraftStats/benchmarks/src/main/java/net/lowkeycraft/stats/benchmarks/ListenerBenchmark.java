@@ -0,0 +1,118 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.lowkeycraft.stats.listeners.PlayerListener;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// PlayerListener handlers called with synthetic events for 100 online players, which is the
+// work the plugin adds to the main thread per event. Events are built in setup so only the
+// handler is measured, and Bukkit's own event dispatch is left out.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ListenerBenchmark {
+
+    private static final int PLAYERS = 100;
+    private static final int PATH_LENGTH = 64;
+
+    private PluginHarness harness;
+    private PlayerListener listener;
+
+    private BlockBreakEvent[] blockBreaks;
+    private BlockPlaceEvent[] blockPlaces;
+    private PlayerDeathEvent[] deaths;
+    private PlayerItemConsumeEvent[] consumes;
+    private PlayerMoveEvent[] moves;
+    private int index;
+    private int moveIndex;
+
+    @Setup
+    public void setup() throws Exception {
+        harness = PluginHarness.start(Map.of());
+        listener = harness.getPlugin().getPlayerListener();
+        List<PlayerMock> players = harness.join(PLAYERS);
+
+        World world = harness.getWorld();
+        Block placed = world.getBlockAt(0, 64, 0);
+        Block against = world.getBlockAt(0, 63, 0);
+        ItemStack stone = new ItemStack(Material.STONE);
+        ItemStack bread = new ItemStack(Material.BREAD);
+
+        blockBreaks = new BlockBreakEvent[PLAYERS];
+        blockPlaces = new BlockPlaceEvent[PLAYERS];
+        deaths = new PlayerDeathEvent[PLAYERS];
+        consumes = new PlayerItemConsumeEvent[PLAYERS];
+        moves = new PlayerMoveEvent[PLAYERS * PATH_LENGTH];
+
+        for (int i = 0; i < PLAYERS; i++) {
+            PlayerMock player = players.get(i);
+            blockBreaks[i] = new BlockBreakEvent(placed, player);
+            blockPlaces[i] = new BlockPlaceEvent(placed, placed.getState(), against, stone, player, true, EquipmentSlot.HAND);
+            deaths[i] = new PlayerDeathEvent(player, new ArrayList<>(), 0, null);
+            consumes[i] = new PlayerItemConsumeEvent(player, bread, EquipmentSlot.HAND);
+
+            // Walking speed, with every other event only turning the head like real clients
+            for (int step = 0; step < PATH_LENGTH; step++) {
+                Location from = new Location(world, (step / 2) * 0.2, 64, i, step * 3f, 0);
+                Location to = new Location(world, ((step + 1) / 2) * 0.2, 64, i, (step + 1) * 3f, 0);
+                moves[step * PLAYERS + i] = new PlayerMoveEvent(player, from, to);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        harness.stop();
+    }
+
+    @Benchmark
+    public void onBlockBreak() {
+        listener.onBlockBreak(blockBreaks[next()]);
+    }
+
+    @Benchmark
+    public void onBlockPlace() {
+        listener.onBlockPlace(blockPlaces[next()]);
+    }
+
+    @Benchmark
+    public void onPlayerDeath() {
+        listener.onPlayerDeath(deaths[next()]);
+    }
+
+    @Benchmark
+    public void onItemConsume() {
+        listener.onCraftItem(consumes[next()]);
+    }
+
+    @Benchmark
+    public void onPlayerMove() {
+        listener.onPlayerMove(moves[moveIndex]);
+        moveIndex = (moveIndex + 1) % moves.length;
+    }
+
+    private int next() {
+        int current = index;
+        index = (index + 1) % PLAYERS;
+        return current;
+    }
+}
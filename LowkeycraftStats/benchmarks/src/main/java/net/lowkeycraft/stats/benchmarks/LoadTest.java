@@ -0,0 +1,462 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.lowkeycraft.stats.database.DatabaseExecutor;
+import net.lowkeycraft.stats.database.DatabaseManager;
+import net.lowkeycraft.stats.listeners.PlayerListener;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Synthetic load on the real plugin: a MockBukkit server ticking at 20 TPS with hundreds of players
+// whose events go straight to PlayerListener, while ApiClient threads call the web API.
+// Reports handler latency percentiles per event, plugin time per tick, database queue depth and
+// API latency per route. Everything runs in process against a temp SQLite file, so no network is needed.
+//
+//   java -cp target/benchmarks.jar net.lowkeycraft.stats.benchmarks.LoadTest --players=300 --duration=120
+public final class LoadTest {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double WALK_STEP = 0.2;
+
+    // Rates are events per second across the whole server
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("players", "300");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("join-rate", "0.5");
+        DEFAULTS.put("quit-rate", "0.5");
+        DEFAULTS.put("move-rate", "3000");
+        DEFAULTS.put("block-rate", "300");
+        DEFAULTS.put("kill-rate", "20");
+        DEFAULTS.put("consume-rate", "10");
+        DEFAULTS.put("api-clients", "4");
+        DEFAULTS.put("api-rate", "100");
+        // web-server.threads.mode: platform or virtual
+        DEFAULTS.put("web-threads", "platform");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("output", "load-result.json");
+    }
+
+    private static final String[] EVENTS = {"join", "quit", "move", "blockBreak", "blockPlace", "mobKill", "death", "consume"};
+
+    private final Map<String, String> options;
+    private final Random random;
+    private final Map<String, LatencySamples> events = new LinkedHashMap<>();
+    private final LatencySamples scheduler = new LatencySamples();
+    private final LatencySamples ticks = new LatencySamples();
+    private final List<JsonObject> timeline = new ArrayList<>();
+    private final double[] pending = new double[6];
+
+    private final List<PlayerMock> online = new ArrayList<>();
+    private final List<PlayerMock> offline = new ArrayList<>();
+    private PluginHarness harness;
+    private ItemStack bread;
+    private ItemStack stone;
+    private PlayerListener listener;
+    private DatabaseManager database;
+    private boolean measuring;
+    private boolean alternate;
+    private int newPlayers;
+    private int maxWriterQueue;
+    private int maxReaderQueue;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.random = new Random(getLong("seed"));
+        for (String event : EVENTS) {
+            events.put(event, new LatencySamples());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2 || !DEFAULTS.containsKey(parts[0])) {
+                System.err.println("Unknown option " + arg + ", available: --" + String.join("=, --", DEFAULTS.keySet()) + "=");
+                System.exit(2);
+            }
+            options.put(parts[0], parts[1]);
+        }
+
+        new LoadTest(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        harness = PluginHarness.start(Map.of("web-server.enabled", true, "web-server.port", port,
+            "web-server.threads.mode", options.get("web-threads")));
+        listener = harness.getPlugin().getPlayerListener();
+        database = harness.getPlugin().getDatabaseManager();
+        bread = new ItemStack(Material.BREAD);
+        stone = new ItemStack(Material.STONE);
+        online.addAll(harness.join(getInt("players")));
+
+        String baseUrl = "http://127.0.0.1:" + port;
+        awaitWebServer(baseUrl);
+
+        List<String> usernames = new ArrayList<>();
+        online.forEach(player -> usernames.add(player.getName()));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean clientsMeasuring = new AtomicBoolean(false);
+        AtomicLong requests = new AtomicLong();
+        List<ApiClient> clients = new ArrayList<>();
+        List<Thread> clientThreads = new ArrayList<>();
+        int clientCount = getInt("api-clients");
+        for (int i = 0; i < clientCount; i++) {
+            ApiClient client = new ApiClient(baseUrl, usernames, getDouble("api-rate") / clientCount,
+                getLong("seed") + i + 1, running, clientsMeasuring, requests);
+            Thread thread = new Thread(client, "LoadTest-ApiClient-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            clients.add(client);
+            clientThreads.add(thread);
+        }
+
+        int warmupTicks = getInt("warmup") * 20;
+        int totalTicks = warmupTicks + getInt("duration") * 20;
+        System.out.println("Running " + online.size() + " players for " + getInt("warmup") + "s warmup + " +
+            getInt("duration") + "s, API on " + baseUrl + " with " + options.get("web-threads") + " threads");
+
+        long nextTick = System.nanoTime();
+        long lastRequests = 0;
+        for (int tick = 0; tick < totalTicks; tick++) {
+            if (tick == warmupTicks) {
+                measuring = true;
+                clientsMeasuring.set(true);
+            }
+
+            long start = System.nanoTime();
+            runTick();
+            if (measuring) {
+                ticks.add(System.nanoTime() - start);
+            }
+
+            if (tick % 20 == 19) {
+                long total = requests.get();
+                sampleQueues((tick + 1) / 20, total - lastRequests);
+                lastRequests = total;
+            }
+
+            nextTick += TICK_NANOS;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+
+        running.set(false);
+        for (Thread thread : clientThreads) {
+            thread.join(TimeUnit.SECONDS.toMillis(15));
+        }
+
+        // How far behind the writer was when the load stopped
+        long drainStart = System.nanoTime();
+        harness.awaitWrites();
+        long drainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - drainStart);
+
+        JsonObject report = report(clients, drainMillis);
+        try (Writer writer = Files.newBufferedWriter(Path.of(options.get("output")))) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+        System.out.println("Results written to " + options.get("output"));
+
+        harness.stop();
+    }
+
+    // One server tick: this tick's share of every event rate, then the plugin's scheduled tasks
+    private void runTick() {
+        repeat(0, getDouble("join-rate"), this::join);
+        repeat(1, getDouble("quit-rate"), this::quit);
+        repeat(2, getDouble("move-rate"), this::move);
+        repeat(3, getDouble("block-rate"), this::block);
+        repeat(4, getDouble("kill-rate"), this::kill);
+        repeat(5, getDouble("consume-rate"), this::consume);
+
+        long start = System.nanoTime();
+        harness.getServer().getScheduler().performOneTick();
+        if (measuring) {
+            scheduler.add(System.nanoTime() - start);
+        }
+    }
+
+    // Fractional rates carry over, so 0.5 per second is one event every 40 ticks
+    private void repeat(int type, double perSecond, Consumer<PlayerMock> action) {
+        pending[type] += perSecond / 20;
+        while (pending[type] >= 1) {
+            pending[type]--;
+            if (!online.isEmpty()) {
+                action.accept(online.get(random.nextInt(online.size())));
+            }
+        }
+    }
+
+    private void join(PlayerMock ignored) {
+        PlayerMock player;
+        if (offline.isEmpty()) {
+            // Nobody to come back, so this is a first join
+            player = new PlayerMock(harness.getServer(), "newplayer" + newPlayers++);
+            player.setLocation(new Location(harness.getWorld(), 0, 64, 0));
+        } else {
+            player = offline.remove(random.nextInt(offline.size()));
+        }
+
+        PlayerJoinEvent event = new PlayerJoinEvent(player, "joined");
+        long start = System.nanoTime();
+        listener.onPlayerJoin(event);
+        record("join", start);
+        online.add(player);
+    }
+
+    private void quit(PlayerMock player) {
+        if (online.size() == 1) return;
+
+        PlayerQuitEvent event = new PlayerQuitEvent(player, "left");
+        long start = System.nanoTime();
+        listener.onPlayerQuit(event);
+        record("quit", start);
+        online.remove(player);
+        offline.add(player);
+    }
+
+    private void move(PlayerMock player) {
+        Location from = player.getLocation();
+        double angle = random.nextDouble() * Math.PI * 2;
+        Location to = new Location(from.getWorld(), from.getX() + Math.cos(angle) * WALK_STEP, from.getY(),
+            from.getZ() + Math.sin(angle) * WALK_STEP, (float) Math.toDegrees(angle), 0);
+
+        PlayerMoveEvent event = new PlayerMoveEvent(player, from, to);
+        long start = System.nanoTime();
+        listener.onPlayerMove(event);
+        record("move", start);
+        player.setLocation(to);
+    }
+
+    private void block(PlayerMock player) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        Block block = world.getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+
+        alternate = !alternate;
+        if (alternate) {
+            BlockBreakEvent event = new BlockBreakEvent(block, player);
+            long start = System.nanoTime();
+            listener.onBlockBreak(event);
+            record("blockBreak", start);
+        } else {
+            Block against = world.getBlockAt(location.getBlockX(), location.getBlockY() - 1, location.getBlockZ());
+            BlockPlaceEvent event = new BlockPlaceEvent(block, block.getState(), against, stone, player, true, EquipmentSlot.HAND);
+            long start = System.nanoTime();
+            listener.onBlockPlace(event);
+            record("blockPlace", start);
+        }
+    }
+
+    // Mostly mob kills, with a player death every fifth kill
+    private void kill(PlayerMock player) {
+        if (random.nextInt(5) == 0) {
+            PlayerDeathEvent event = new PlayerDeathEvent(player, new ArrayList<>(), 0, "died");
+            long start = System.nanoTime();
+            listener.onPlayerDeath(event);
+            record("death", start);
+        } else {
+            EntityDeathEvent event = new EntityDeathEvent(Fakes.mob(player), new ArrayList<>());
+            long start = System.nanoTime();
+            listener.onEntityDeath(event);
+            record("mobKill", start);
+        }
+    }
+
+    private void consume(PlayerMock player) {
+        PlayerItemConsumeEvent event = new PlayerItemConsumeEvent(player, bread, EquipmentSlot.HAND);
+        long start = System.nanoTime();
+        listener.onCraftItem(event);
+        record("consume", start);
+    }
+
+    private void record(String event, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (measuring) {
+            events.get(event).add(elapsed);
+        }
+    }
+
+    private void sampleQueues(int second, long requestsThisSecond) {
+        DatabaseExecutor writer = database.getWriteExecutor();
+        DatabaseExecutor reader = database.getReadExecutor();
+        maxWriterQueue = Math.max(maxWriterQueue, writer.getQueueDepth());
+        maxReaderQueue = Math.max(maxReaderQueue, reader.getQueueDepth());
+
+        JsonObject sample = new JsonObject();
+        sample.addProperty("second", second);
+        sample.addProperty("writerQueue", writer.getQueueDepth());
+        sample.addProperty("readerQueue", reader.getQueueDepth());
+        sample.addProperty("writerRejected", writer.getRejectedTasks());
+        sample.addProperty("readerRejected", reader.getRejectedTasks());
+        sample.addProperty("apiRequests", requestsThisSecond);
+        sample.addProperty("online", online.size());
+        timeline.add(sample);
+
+        System.out.printf("[%4ds] online %d | writer queue %d | reader queue %d | api %d req/s%n",
+            second, online.size(), writer.getQueueDepth(), reader.getQueueDepth(), requestsThisSecond);
+    }
+
+    private JsonObject report(List<ApiClient> clients, long drainMillis) {
+        JsonObject report = new JsonObject();
+        JsonObject config = new JsonObject();
+        options.forEach(config::addProperty);
+        report.add("options", config);
+
+        System.out.println();
+        System.out.printf("%-14s %9s %10s %10s %10s %10s %10s%n", "handler (us)", "count", "p50", "p90", "p99", "p99.9", "max");
+        JsonObject handlers = new JsonObject();
+        events.forEach((event, samples) -> handlers.add(event, summarize(event, samples, 1_000)));
+        handlers.add("scheduler", summarize("scheduler", scheduler, 1_000));
+        report.add("handlersMicros", handlers);
+
+        // Share of the 50 ms tick budget the plugin used, events and scheduled tasks together
+        JsonObject tick = summarize("tick total", ticks, 1_000);
+        tick.addProperty("budgetUsedPercentP99", ticks.percentile(99) * 100.0 / TICK_NANOS);
+        tick.addProperty("budgetUsedPercentMean", ticks.count() == 0 ? 0 : ticks.sum() * 100.0 / ticks.count() / TICK_NANOS);
+        report.add("tickMicros", tick);
+
+        Map<String, LatencySamples> routes = new LinkedHashMap<>();
+        Map<String, Integer> errors = new LinkedHashMap<>();
+        Map<String, Integer> busy = new LinkedHashMap<>();
+        for (ApiClient client : clients) {
+            client.getLatencies().forEach((route, samples) ->
+                routes.computeIfAbsent(route, key -> new LatencySamples()).addAll(samples));
+            client.getErrors().forEach((route, count) -> errors.merge(route, count, Integer::sum));
+            client.getBusy().forEach((route, count) -> busy.merge(route, count, Integer::sum));
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %9s %10s %10s %10s %10s %10s%n", "api (ms)", "count", "p50", "p90", "p99", "p99.9", "max");
+        JsonObject api = new JsonObject();
+        routes.forEach((route, samples) -> {
+            JsonObject summary = summarize(route, samples, 1_000_000);
+            summary.addProperty("errors", errors.getOrDefault(route, 0));
+            // 503s from a backed up read executor, also counted in errors
+            summary.addProperty("busy", busy.getOrDefault(route, 0));
+            api.add(route, summary);
+        });
+        report.add("apiMillis", api);
+        if (!errors.isEmpty()) {
+            System.out.println("API errors: " + errors);
+        }
+        if (!busy.isEmpty()) {
+            System.out.println("API 503 busy: " + busy);
+        }
+
+        JsonObject queues = new JsonObject();
+        queues.addProperty("writerMax", maxWriterQueue);
+        queues.addProperty("readerMax", maxReaderQueue);
+        queues.addProperty("writerCapacity", database.getWriteExecutor().getQueueCapacity());
+        queues.addProperty("readerCapacity", database.getReadExecutor().getQueueCapacity());
+        queues.addProperty("writerRejected", database.getWriteExecutor().getRejectedTasks());
+        queues.addProperty("readerRejected", database.getReadExecutor().getRejectedTasks());
+        queues.addProperty("drainAfterLoadMillis", drainMillis);
+        JsonArray samples = new JsonArray();
+        timeline.forEach(samples::add);
+        queues.add("timeline", samples);
+        report.add("databaseQueues", queues);
+
+        System.out.println();
+        System.out.printf("tick budget used: p99 %.2f%%, mean %.2f%%%n",
+            tick.get("budgetUsedPercentP99").getAsDouble(), tick.get("budgetUsedPercentMean").getAsDouble());
+        System.out.printf("database queues: writer max %d/%d, reader max %d/%d, rejected %d/%d, writer drained in %d ms%n",
+            maxWriterQueue, database.getWriteExecutor().getQueueCapacity(), maxReaderQueue,
+            database.getReadExecutor().getQueueCapacity(), database.getWriteExecutor().getRejectedTasks(),
+            database.getReadExecutor().getRejectedTasks(), drainMillis);
+        return report;
+    }
+
+    private JsonObject summarize(String name, LatencySamples samples, double unitNanos) {
+        double[] values = {
+            samples.percentile(50) / unitNanos, samples.percentile(90) / unitNanos,
+            samples.percentile(99) / unitNanos, samples.percentile(99.9) / unitNanos, samples.max() / unitNanos
+        };
+        System.out.printf("%-14s %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            name, samples.count(), values[0], values[1], values[2], values[3], values[4]);
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("count", samples.count());
+        summary.addProperty("p50", values[0]);
+        summary.addProperty("p90", values[1]);
+        summary.addProperty("p99", values[2]);
+        summary.addProperty("p999", values[3]);
+        summary.addProperty("max", values[4]);
+        return summary;
+    }
+
+    // Spark starts in the background, so poll the health route before the clients start
+    private void awaitWebServer(String baseUrl) throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/health")).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Web server did not start on " + baseUrl);
+    }
+
+    private int getInt(String option) {
+        return Integer.parseInt(options.get(option));
+    }
+
+    private long getLong(String option) {
+        return Long.parseLong(options.get(option));
+    }
+
+    private double getDouble(String option) {
+        return Double.parseDouble(options.get(option));
+    }
+}
@@ -0,0 +1,97 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import net.lowkeycraft.stats.tracking.MovementTracker;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Per-event cost of PlayerListener.onPlayerMove: the old distance + round + UPDATE path
+// against the in-memory MovementTracker. Half of the events only turn the player's head.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementBenchmark {
+
+    private static final int PATH_LENGTH = 1024;
+
+    // 0.2 is walking speed, 1.5 is elytra/horse speed where the old code wrote on every event
+    @Param({"0.2", "1.5"})
+    public double step;
+
+    private final UUID uuid = UUID.randomUUID();
+    private final Player player = Fakes.player(uuid, "Bench");
+    private final Location[] path = new Location[PATH_LENGTH + 1];
+
+    private MovementTracker tracker;
+    private File databaseFile;
+    private Connection connection;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        World world = Fakes.world("world");
+        for (int i = 0; i <= PATH_LENGTH; i++) {
+            // Every other event is a head rotation without a position change
+            double x = (i / 2) * step;
+            path[i] = new Location(world, x, 64, 0, i * 3f, 0);
+        }
+
+        tracker = new MovementTracker(0);
+
+        databaseFile = File.createTempFile("lowkeycraft-movement", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE player_stats (uuid VARCHAR(36) PRIMARY KEY, distance_traveled DOUBLE DEFAULT 0)");
+            stmt.execute("INSERT INTO player_stats (uuid) VALUES ('" + uuid + "')");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        databaseFile.delete();
+    }
+
+    @Benchmark
+    public void legacyDistanceAndUpdate() throws SQLException {
+        Location from = path[index];
+        Location to = path[index + 1];
+        index = (index + 1) % PATH_LENGTH;
+
+        if (from.equals(to)) return;
+
+        double distance = from.distance(to);
+        int blocksDistance = (int) Math.round(distance);
+        if (blocksDistance > 0) {
+            String statName = "distance_traveled";
+            String sql = "UPDATE player_stats SET " + statName + " = " + statName + " + ? WHERE uuid = ?";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setInt(1, blocksDistance);
+                stmt.setString(2, uuid.toString());
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    @Benchmark
+    public void movementTracker() {
+        Location from = path[index];
+        Location to = path[index + 1];
+        index = (index + 1) % PATH_LENGTH;
+
+        tracker.handleMove(player, from, to);
+    }
+}
@@ -0,0 +1,93 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.lowkeycraft.stats.api.ResponseFormat;
+import net.lowkeycraft.stats.api.ResponseWriter;
+import net.lowkeycraft.stats.api.WebServer;
+import net.lowkeycraft.stats.database.DatabaseManager;
+import net.lowkeycraft.stats.database.PlayerProfile;
+import net.lowkeycraft.stats.database.Stat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The response side of /api/player/:username: WebServer.writePlayerProfile streaming profiles read
+// back from the database as JSON and as CBOR. The web server is not started.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerJsonBenchmark {
+
+    private static final int PLAYERS = 100;
+
+    private PluginHarness harness;
+    private WebServer webServer;
+    private MethodHandle writePlayerProfile;
+    private PlayerProfile[] profiles;
+    private int index;
+
+    @Setup
+    public void setup() throws Throwable {
+        harness = PluginHarness.start(Map.of());
+        DatabaseManager database = harness.getPlugin().getDatabaseManager();
+        List<PlayerMock> players = harness.join(PLAYERS);
+
+        // Different values per player so rankings and number formatting are not all alike
+        for (int i = 0; i < PLAYERS; i++) {
+            PlayerMock player = players.get(i);
+            for (Stat stat : Stat.values()) {
+                database.incrementStat(player.getUniqueId(), stat, (i + 1) * (stat.ordinal() + 1));
+            }
+            database.updatePlaytime(player.getUniqueId().toString(), i * 3_600_000L + 125_000L);
+        }
+        database.flushPendingStats();
+
+        profiles = new PlayerProfile[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            profiles[i] = database.getPlayerData(players.get(i).getName());
+        }
+
+        webServer = new WebServer(harness.getPlugin());
+        writePlayerProfile = MethodHandles.privateLookupIn(WebServer.class, MethodHandles.lookup())
+            .findVirtual(WebServer.class, "writePlayerProfile",
+                MethodType.methodType(void.class, ResponseWriter.class, PlayerProfile.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        harness.stop();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Throwable {
+        return write(ResponseFormat.JSON);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws Throwable {
+        return write(ResponseFormat.CBOR);
+    }
+
+    private byte[] write(ResponseFormat format) throws Throwable {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        ResponseWriter writer = format.open(out);
+        writePlayerProfile.invoke(webServer, writer, next());
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private PlayerProfile next() {
+        PlayerProfile profile = profiles[index];
+        index = (index + 1) % PLAYERS;
+        return profile;
+    }
+}
@@ -0,0 +1,86 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.lowkeycraft.stats.LowkeycraftStats;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Boots the real plugin on a MockBukkit server. The data folder is a fresh temp directory,
+// so the database is a temp SQLite file. The web server is off unless the overrides enable it.
+public final class PluginHarness {
+
+    private final ServerMock server;
+    private final WorldMock world;
+    private final LowkeycraftStats plugin;
+
+    private PluginHarness(ServerMock server, WorldMock world, LowkeycraftStats plugin) {
+        this.server = server;
+        this.world = world;
+        this.plugin = plugin;
+    }
+
+    public static PluginHarness start(Map<String, Object> overrides) throws Exception {
+        ServerMock server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld("world");
+
+        // MockBukkit hands the plugin this folder, so the config is in place before onEnable runs
+        PluginDescriptionFile description;
+        try (InputStream in = LowkeycraftStats.class.getClassLoader().getResourceAsStream("plugin.yml")) {
+            description = new PluginDescriptionFile(in);
+        }
+        File dataFolder = server.getPluginManager()
+            .createTemporaryDirectory(description.getName() + "-" + description.getVersion());
+
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("web-server.enabled", false);
+        overrides.forEach(config::set);
+        config.save(new File(dataFolder, "config.yml"));
+
+        LowkeycraftStats plugin = MockBukkit.load(LowkeycraftStats.class);
+        if (!plugin.isEnabled()) {
+            MockBukkit.unmock();
+            throw new IllegalStateException("LowkeycraftStats failed to enable, see the log above");
+        }
+        return new PluginHarness(server, world, plugin);
+    }
+
+    // Joins through PlayerJoinEvent and waits until the join batches are written
+    public List<PlayerMock> join(int count) {
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            players.add(server.addPlayer("player" + i));
+        }
+        awaitWrites();
+        return players;
+    }
+
+    // The writer is a single thread, so an empty task finishes after everything queued before it
+    public void awaitWrites() {
+        plugin.getDatabaseManager().getWriteExecutor().run(() -> {}).join();
+    }
+
+    public ServerMock getServer() {
+        return server;
+    }
+
+    public WorldMock getWorld() {
+        return world;
+    }
+
+    public LowkeycraftStats getPlugin() {
+        return plugin;
+    }
+
+    public void stop() {
+        MockBukkit.unmock();
+    }
+}
@@ -0,0 +1,78 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import net.lowkeycraft.stats.database.SQLiteProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Write throughput of auto-committed stat updates with the driver defaults
+// (rollback journal, synchronous=FULL) against the database.sqlite profile from config.yml.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SQLiteWriteBenchmark {
+
+    private static final int PLAYERS = 200;
+
+    @Param({"default", "tuned"})
+    public String profile;
+
+    private final String[] uuids = new String[PLAYERS];
+
+    private File databaseFile;
+    private Connection connection;
+    private PreparedStatement update;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        databaseFile = File.createTempFile("lowkeycraft-sqlite", ".db");
+
+        Properties properties = new Properties();
+        if (profile.equals("tuned")) {
+            properties = new SQLiteProfile("WAL", "NORMAL", -16000, 268435456L, 5000, "MEMORY").writerProperties();
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath(), properties);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE player_stats (uuid VARCHAR(36) PRIMARY KEY, blocks_broken INT DEFAULT 0)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO player_stats (uuid) VALUES (?)")) {
+            for (int i = 0; i < PLAYERS; i++) {
+                uuids[i] = UUID.randomUUID().toString();
+                insert.setString(1, uuids[i]);
+                insert.executeUpdate();
+            }
+        }
+
+        update = connection.prepareStatement("UPDATE player_stats SET blocks_broken = blocks_broken + ? WHERE uuid = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        update.close();
+        connection.close();
+        new File(databaseFile.getAbsolutePath() + "-wal").delete();
+        new File(databaseFile.getAbsolutePath() + "-shm").delete();
+        databaseFile.delete();
+    }
+
+    @Benchmark
+    public int autoCommittedIncrement() throws SQLException {
+        update.setInt(1, 1);
+        update.setString(2, uuids[index]);
+        index = (index + 1) % PLAYERS;
+        return update.executeUpdate();
+    }
+}
@@ -0,0 +1,108 @@
+package net.lowkeycraft.stats.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import net.lowkeycraft.stats.database.SQLiteProfile;
+import net.lowkeycraft.stats.database.StatementCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one pooled statement as DatabaseManager used to run it (prepare, execute, close)
+// against StatementCache, for the primary key read behind getPlayerData and the playtime update.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StatementCacheBenchmark {
+
+    private static final int PLAYERS = 200;
+    private static final String SELECT_SQL = """
+        SELECT p.*, ps.* FROM players p
+        LEFT JOIN player_stats ps ON p.uuid = ps.uuid
+        WHERE p.uuid = ?
+    """;
+    private static final String UPDATE_SQL = "UPDATE players SET playtime = playtime + ? WHERE uuid = ?";
+
+    @Param({"select", "update"})
+    public String query;
+
+    private final String[] uuids = new String[PLAYERS];
+    private final StatementCache statements = new StatementCache();
+
+    private File databaseFile;
+    private HikariDataSource pool;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        databaseFile = File.createTempFile("lowkeycraft-statements", ".db");
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setMaximumPoolSize(1);
+        config.setDataSourceProperties(new SQLiteProfile("WAL", "NORMAL", -16000, 268435456L, 5000, "MEMORY").writerProperties());
+        pool = new HikariDataSource(config);
+
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE players (uuid VARCHAR(36) PRIMARY KEY, username VARCHAR(16), playtime BIGINT DEFAULT 0)");
+            stmt.execute("CREATE TABLE player_stats (uuid VARCHAR(36) PRIMARY KEY, blocks_broken INT DEFAULT 0, deaths INT DEFAULT 0)");
+            for (int i = 0; i < PLAYERS; i++) {
+                uuids[i] = UUID.randomUUID().toString();
+                stmt.execute("INSERT INTO players (uuid, username) VALUES ('" + uuids[i] + "', 'player" + i + "')");
+                stmt.execute("INSERT INTO player_stats (uuid) VALUES ('" + uuids[i] + "')");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        statements.close();
+        pool.close();
+        new File(databaseFile.getAbsolutePath() + "-wal").delete();
+        new File(databaseFile.getAbsolutePath() + "-shm").delete();
+        databaseFile.delete();
+    }
+
+    @Benchmark
+    public long prepareEachCall() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query.equals("select") ? SELECT_SQL : UPDATE_SQL)) {
+            return execute(stmt);
+        }
+    }
+
+    @Benchmark
+    public long cachedStatement() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            return execute(statements.prepare(connection, query.equals("select") ? SELECT_SQL : UPDATE_SQL));
+        }
+    }
+
+    private long execute(PreparedStatement stmt) throws SQLException {
+        String uuid = uuids[index];
+        index = (index + 1) % PLAYERS;
+
+        if (query.equals("update")) {
+            stmt.setLong(1, 1000);
+            stmt.setString(2, uuid);
+            return stmt.executeUpdate();
+        }
+
+        stmt.setString(1, uuid);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("playtime") : -1;
+        }
+    }
+}
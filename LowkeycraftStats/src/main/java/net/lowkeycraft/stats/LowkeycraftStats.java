@@ -3,6 +3,8 @@ package net.lowkeycraft.stats;
 import net.lowkeycraft.stats.commands.StatsCommand;
 import net.lowkeycraft.stats.database.DatabaseManager;
 import net.lowkeycraft.stats.listeners.PlayerListener;
+import net.lowkeycraft.stats.metrics.Metrics;
+import net.lowkeycraft.stats.api.LiveStream;
 import net.lowkeycraft.stats.api.WebServer;
 import net.lowkeycraft.stats.utils.ConfigManager;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -11,8 +13,11 @@ public class LowkeycraftStats extends JavaPlugin {
 
     private static LowkeycraftStats instance;
     private DatabaseManager databaseManager;
+    private PlayerListener playerListener;
     private WebServer webServer;
+    private LiveStream liveStream;
     private ConfigManager configManager;
+    private Metrics metrics;
 
     @Override
     public void onEnable() {
@@ -21,6 +26,7 @@ public class LowkeycraftStats extends JavaPlugin {
         // Load configuration
         saveDefaultConfig();
         configManager = new ConfigManager(this);
+        metrics = new Metrics(configManager.isMetricsEnabled());
 
         getLogger().info("Starting LowkeycraftStats plugin...");
 
@@ -30,6 +36,9 @@ public class LowkeycraftStats extends JavaPlugin {
             databaseManager.initialize();
             getLogger().info("Database initialized successfully!");
 
+            // Live updates for /api/stream/live, fed by the listener
+            liveStream = new LiveStream(this);
+
             // Register event listeners
             registerListeners();
             getLogger().info("Event listeners registered!");
@@ -64,6 +73,11 @@ public class LowkeycraftStats extends JavaPlugin {
             getLogger().info("Web server stopped");
         }
 
+        // Save playtime of players still online
+        if (playerListener != null) {
+            playerListener.onDisable();
+        }
+
         // Close database connections
         if (databaseManager != null) {
             databaseManager.close();
@@ -74,12 +88,14 @@ public class LowkeycraftStats extends JavaPlugin {
     }
 
     private void registerListeners() {
-        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+        playerListener = new PlayerListener(this);
+        getServer().getPluginManager().registerEvents(playerListener, this);
     }
 
     private void registerCommands() {
         getCommand("stats").setExecutor(new StatsCommand(this));
         getCommand("statsreload").setExecutor(new StatsCommand(this));
+        getCommand("statsprofile").setExecutor(new StatsCommand(this));
     }
 
     public void reloadPluginConfig() {
@@ -106,6 +122,14 @@ public class LowkeycraftStats extends JavaPlugin {
         return databaseManager;
     }
 
+    public PlayerListener getPlayerListener() {
+        return playerListener;
+    }
+
+    public LiveStream getLiveStream() {
+        return liveStream;
+    }
+
     public WebServer getWebServer() {
         return webServer;
     }
@@ -113,4 +137,8 @@ public class LowkeycraftStats extends JavaPlugin {
     public ConfigManager getConfigManager() {
         return configManager;
     }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package net.lowkeycraft.stats.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// CBOR (RFC 8949) with the same structure as the JSON bodies. Maps and arrays are written with
+// indefinite length, so rows can be streamed without counting them first. Whole numbers are integers
+// and fractional numbers floats, shortened to 32 bits when that loses nothing
+final class CborWriter implements ResponseWriter {
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int TEXT = 3;
+
+    private static final int ARRAY_START = 0x9F;
+    private static final int MAP_START = 0xBF;
+    private static final int BREAK = 0xFF;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[9];
+
+    // Expected to be buffered; every item is a few small writes
+    CborWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public ResponseWriter beginObject() throws IOException {
+        out.write(MAP_START);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter endObject() throws IOException {
+        out.write(BREAK);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter beginArray() throws IOException {
+        out.write(ARRAY_START);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter endArray() throws IOException {
+        out.write(BREAK);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter name(String name) throws IOException {
+        return writeText(name);
+    }
+
+    @Override
+    public ResponseWriter value(String value) throws IOException {
+        return value == null ? nullValue() : writeText(value);
+    }
+
+    @Override
+    public ResponseWriter value(boolean value) throws IOException {
+        out.write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(long value) throws IOException {
+        if (value >= 0) {
+            writeHead(UNSIGNED, value);
+        } else {
+            // -1 - value, which is never negative
+            writeHead(NEGATIVE, ~value);
+        }
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(double value) throws IOException {
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            return value(single);
+        }
+
+        long bits = Double.doubleToLongBits(value);
+        buffer[0] = (byte) FLOAT64;
+        for (int i = 0; i < 8; i++) {
+            buffer[8 - i] = (byte) (bits >>> (i * 8));
+        }
+        out.write(buffer, 0, 9);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(float value) throws IOException {
+        int bits = Float.floatToIntBits(value);
+        buffer[0] = (byte) FLOAT32;
+        for (int i = 0; i < 4; i++) {
+            buffer[4 - i] = (byte) (bits >>> (i * 8));
+        }
+        out.write(buffer, 0, 5);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter nullValue() throws IOException {
+        out.write(NULL);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private ResponseWriter writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHead(TEXT, bytes.length);
+        out.write(bytes);
+        return this;
+    }
+
+    // Major type and argument in the shortest form: in the first byte below 24, else 1, 2, 4 or 8 bytes after it
+    private void writeHead(int majorType, long argument) throws IOException {
+        int type = majorType << 5;
+        int length;
+        if (argument < 24) {
+            out.write(type | (int) argument);
+            return;
+        } else if (argument < 0x100) {
+            buffer[0] = (byte) (type | 24);
+            length = 1;
+        } else if (argument < 0x10000) {
+            buffer[0] = (byte) (type | 25);
+            length = 2;
+        } else if (argument < 0x100000000L) {
+            buffer[0] = (byte) (type | 26);
+            length = 4;
+        } else {
+            buffer[0] = (byte) (type | 27);
+            length = 8;
+        }
+
+        for (int i = 0; i < length; i++) {
+            buffer[length - i] = (byte) (argument >>> (i * 8));
+        }
+        out.write(buffer, 0, length + 1);
+    }
+}
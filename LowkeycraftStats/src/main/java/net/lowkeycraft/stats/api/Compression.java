@@ -0,0 +1,55 @@
+package net.lowkeycraft.stats.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Content-Encoding negotiation for API responses. gzip is preferred over deflate when both are accepted
+final class Compression {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private Compression() {
+    }
+
+    // The encoding to use for an Accept-Encoding header, or null to send the body as is
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.trim().split(";");
+            String coding = fields[0].trim().toLowerCase();
+            if (isRefused(fields)) continue;
+
+            if (coding.equals(GZIP) || coding.equals("x-gzip") || coding.equals("*")) {
+                gzip = true;
+            } else if (coding.equals(DEFLATE)) {
+                deflate = true;
+            }
+        }
+        return gzip ? GZIP : deflate ? DEFLATE : null;
+    }
+
+    // q=0 means the client does not want that coding
+    private static boolean isRefused(String[] fields) {
+        for (int i = 1; i < fields.length; i++) {
+            String parameter = fields[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static DeflaterOutputStream wrap(OutputStream out, String encoding) throws IOException {
+        return encoding.equals(GZIP) ? new GZIPOutputStream(out, 8192) : new DeflaterOutputStream(out);
+    }
+}
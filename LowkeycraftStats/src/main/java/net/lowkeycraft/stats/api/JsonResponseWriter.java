@@ -0,0 +1,89 @@
+package net.lowkeycraft.stats.api;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// JSON through Gson's JsonWriter, HTML-safe like Gson.toJson, so bodies match what Gson produced
+final class JsonResponseWriter implements ResponseWriter {
+
+    private final JsonWriter json;
+
+    JsonResponseWriter(Writer out) {
+        this.json = new JsonWriter(out);
+        json.setHtmlSafe(true);
+    }
+
+    @Override
+    public ResponseWriter beginObject() throws IOException {
+        json.beginObject();
+        return this;
+    }
+
+    @Override
+    public ResponseWriter endObject() throws IOException {
+        json.endObject();
+        return this;
+    }
+
+    @Override
+    public ResponseWriter beginArray() throws IOException {
+        json.beginArray();
+        return this;
+    }
+
+    @Override
+    public ResponseWriter endArray() throws IOException {
+        json.endArray();
+        return this;
+    }
+
+    @Override
+    public ResponseWriter name(String name) throws IOException {
+        json.name(name);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(String value) throws IOException {
+        json.value(value);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(boolean value) throws IOException {
+        json.value(value);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(long value) throws IOException {
+        json.value(value);
+        return this;
+    }
+
+    @Override
+    public ResponseWriter value(double value) throws IOException {
+        json.value(value);
+        return this;
+    }
+
+    // Boxed so it is printed as a float, not widened to a double
+    @Override
+    public ResponseWriter value(float value) throws IOException {
+        json.value(Float.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public ResponseWriter nullValue() throws IOException {
+        json.nullValue();
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        json.flush();
+    }
+}
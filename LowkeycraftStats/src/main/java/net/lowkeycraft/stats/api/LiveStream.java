@@ -0,0 +1,315 @@
+package net.lowkeycraft.stats.api;
+
+import com.google.gson.stream.JsonWriter;
+import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.LiveDataSnapshot;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fan-out buffer behind /api/stream/live. Every live data cycle, join and quit is encoded once into a
+// ring of recent events, and each subscriber reads the ring at its own position on its own request thread.
+// Publishers never wait for subscribers; one that falls a whole ring behind is disconnected.
+public class LiveStream {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String LIVE = "live";
+    public static final String JOIN = "join";
+    public static final String QUIT = "quit";
+
+    // One player's part of an event, kept apart so filtered subscribers can reuse the encoded JSON
+    private record Fragment(UUID uuid, String world, String json) {
+    }
+
+    // The data line is prefix + fragments joined by commas + suffix; frame is the whole unfiltered event
+    private record Event(long id, String type, String prefix, List<Fragment> fragments, String suffix, byte[] frame) {
+    }
+
+    private record PlayerState(String username, LiveDataSnapshot snapshot) {
+    }
+
+    // What a subscriber asked for; null sets mean everything
+    public static final class Subscriber {
+
+        private final Set<UUID> players;
+        private final Set<String> worlds;
+        private final long lastEventId;
+        private volatile boolean closed;
+
+        public Subscriber(Set<UUID> players, Set<String> worlds, long lastEventId) {
+            this.players = players;
+            this.worlds = worlds;
+            this.lastEventId = lastEventId;
+        }
+
+        private boolean isFiltered() {
+            return players != null || worlds != null;
+        }
+
+        private boolean matches(Fragment fragment) {
+            return (players == null || players.contains(fragment.uuid()))
+                && (worlds == null || worlds.contains(fragment.world()));
+        }
+    }
+
+    // A ReentrantLock rather than synchronized: subscribers wait on it for their whole connection, and a
+    // virtual thread waiting in synchronized pins its carrier thread on Java 21 to 23
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final Event[] ring;
+    // Id of the next event; guarded by lock
+    private long nextId = 1;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, PlayerState> players = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public LiveStream(LowkeycraftStats plugin) {
+        this.ring = new Event[Math.max(16, plugin.getConfigManager().getStreamBufferSize())];
+
+        // Players already online when the plugin is enabled never send a join
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            players.put(player.getUniqueId(), new PlayerState(player.getName(), LiveDataSnapshot.capture(player)));
+        }
+    }
+
+    // Main thread
+    public void publishJoin(Player player) {
+        LiveDataSnapshot snapshot = LiveDataSnapshot.capture(player);
+        PlayerState state = new PlayerState(player.getName(), snapshot);
+        players.put(player.getUniqueId(), state);
+
+        if (subscribers.isEmpty()) return;
+        publish(JOIN, "", List.of(encodePlayer(snapshot.uuid(), state)), "");
+    }
+
+    // Main thread
+    public void publishQuit(Player player) {
+        PlayerState state = players.remove(player.getUniqueId());
+
+        if (subscribers.isEmpty() || state == null) return;
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter json = jsonWriter(out);
+            json.beginObject();
+            json.name("uuid").value(player.getUniqueId().toString());
+            json.name("username").value(state.username());
+            json.endObject();
+            json.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        publish(QUIT, "", List.of(new Fragment(player.getUniqueId(), state.snapshot().world(), out.toString())), "");
+    }
+
+    // One event per live data cycle holding only the players whose state changed since the last one
+    public void publishLive(List<LiveDataSnapshot> batch) {
+        List<Fragment> changed = new ArrayList<>();
+        for (LiveDataSnapshot snapshot : batch) {
+            PlayerState previous = players.get(snapshot.uuid());
+            // Quit since the snapshot was taken, or rejoined with a newer one
+            if (previous == null || previous.snapshot().timestamp() > snapshot.timestamp()) continue;
+            if (sameState(previous.snapshot(), snapshot)) continue;
+
+            PlayerState state = new PlayerState(previous.username(), snapshot);
+            // A quit may have removed it meanwhile; it must not come back
+            if (!players.replace(snapshot.uuid(), previous, state)) continue;
+
+            if (!subscribers.isEmpty()) {
+                changed.add(encodePlayer(snapshot.uuid(), state));
+            }
+        }
+
+        if (changed.isEmpty()) return;
+        publish(LIVE, "{\"timestamp\":" + System.currentTimeMillis() + ",\"players\":[", changed, "]}");
+    }
+
+    private void publish(String type, String prefix, List<Fragment> fragments, String suffix) {
+        String data = data(prefix, fragments, suffix);
+        lock.lock();
+        try {
+            long id = nextId++;
+            byte[] frame = frame(id, type, data);
+            ring[(int) (id % ring.length)] = new Event(id, type, prefix, fragments, suffix, frame);
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Streams events to one subscriber until it disconnects, falls a whole ring behind or the web server
+    // stops. A slow socket only ever blocks the subscriber's own thread
+    public void serve(Subscriber subscriber, OutputStream out, long heartbeatMillis) throws IOException, InterruptedException {
+        subscribers.add(subscriber);
+        try {
+            long cursor;
+            boolean resumed = false;
+            lock.lock();
+            try {
+                cursor = nextId;
+                // A reconnecting EventSource sends the last id it saw; replay from there if it is still held
+                long resume = subscriber.lastEventId + 1;
+                if (subscriber.lastEventId > 0 && resume <= nextId && nextId - resume <= ring.length) {
+                    cursor = resume;
+                    resumed = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!resumed) {
+                out.write(snapshot(subscriber));
+            }
+            out.flush();
+
+            List<Event> events = new ArrayList<>();
+            while (!subscriber.closed) {
+                lock.lock();
+                try {
+                    if (cursor == nextId) {
+                        published.await(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    }
+                    if (nextId - cursor > ring.length) {
+                        dropped.increment();
+                        return;
+                    }
+                    for (long id = cursor; id < nextId; id++) {
+                        events.add(ring[(int) (id % ring.length)]);
+                    }
+                    cursor = nextId;
+                } finally {
+                    lock.unlock();
+                }
+
+                if (events.isEmpty()) {
+                    // Comment line, keeps proxies from timing out and notices clients that went away
+                    out.write(':');
+                    out.write('\n');
+                    out.write('\n');
+                }
+                for (Event event : events) {
+                    byte[] frame = frameFor(subscriber, event);
+                    if (frame != null) {
+                        out.write(frame);
+                    }
+                }
+                out.flush();
+                events.clear();
+            }
+        } finally {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    // Ends every open stream, for when the web server stops
+    public void closeAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.closed = true;
+        }
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] frameFor(Subscriber subscriber, Event event) {
+        if (!subscriber.isFiltered()) return event.frame();
+
+        List<Fragment> matching = new ArrayList<>(event.fragments().size());
+        for (Fragment fragment : event.fragments()) {
+            if (subscriber.matches(fragment)) {
+                matching.add(fragment);
+            }
+        }
+        if (matching.isEmpty()) return null;
+        if (matching.size() == event.fragments().size()) return event.frame();
+
+        return frame(event.id(), event.type(), data(event.prefix(), matching, event.suffix()));
+    }
+
+    // Current state of every matching player, sent first so viewers do not wait for the next cycle
+    private byte[] snapshot(Subscriber subscriber) {
+        List<Fragment> fragments = new ArrayList<>();
+        for (Map.Entry<UUID, PlayerState> entry : players.entrySet()) {
+            Fragment fragment = encodePlayer(entry.getKey(), entry.getValue());
+            if (subscriber.matches(fragment)) {
+                fragments.add(fragment);
+            }
+        }
+        String data = data("{\"timestamp\":" + System.currentTimeMillis() + ",\"players\":[", fragments, "]}");
+        return ("event: " + SNAPSHOT + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String data(String prefix, List<Fragment> fragments, String suffix) {
+        StringBuilder data = new StringBuilder(prefix);
+        for (int i = 0; i < fragments.size(); i++) {
+            if (i > 0) data.append(',');
+            data.append(fragments.get(i).json());
+        }
+        return data.append(suffix).toString();
+    }
+
+    private static byte[] frame(long id, String type, String data) {
+        return ("id: " + id + "\nevent: " + type + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Same names as liveData in /api/player/:username
+    private static Fragment encodePlayer(UUID uuid, PlayerState state) {
+        LiveDataSnapshot snapshot = state.snapshot();
+        StringWriter out = new StringWriter(256);
+        try {
+            JsonWriter json = jsonWriter(out);
+            json.beginObject();
+            json.name("uuid").value(uuid.toString());
+            json.name("username").value(state.username());
+            json.name("health").value(snapshot.health());
+            json.name("foodLevel").value(snapshot.foodLevel());
+            json.name("saturation").value(snapshot.saturation());
+            json.name("experienceLevel").value(snapshot.experienceLevel());
+            json.name("experiencePoints").value(Float.valueOf(snapshot.experiencePoints()));
+            json.name("location").beginObject();
+            json.name("x").value(snapshot.x());
+            json.name("y").value(snapshot.y());
+            json.name("z").value(snapshot.z());
+            json.name("world").value(snapshot.world());
+            json.endObject();
+            json.endObject();
+            json.flush();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return new Fragment(uuid, snapshot.world(), out.toString());
+    }
+
+    private static JsonWriter jsonWriter(StringWriter out) {
+        JsonWriter json = new JsonWriter(out);
+        json.setHtmlSafe(true);
+        return json;
+    }
+
+    private static boolean sameState(LiveDataSnapshot a, LiveDataSnapshot b) {
+        return a.health() == b.health() && a.foodLevel() == b.foodLevel() && a.saturation() == b.saturation()
+            && a.experienceLevel() == b.experienceLevel() && a.experiencePoints() == b.experiencePoints()
+            && a.x() == b.x() && a.y() == b.y() && a.z() == b.z() && Objects.equals(a.world(), b.world());
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedSubscribers() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,63 @@
+package net.lowkeycraft.stats.api;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+// Body formats of the web API, picked from the Accept header. JSON unless the client asks for CBOR
+public enum ResponseFormat {
+
+    JSON("application/json"),
+    CBOR("application/cbor");
+
+    private final String contentType;
+
+    ResponseFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    // CBOR when it is accepted and JSON is not ranked above it, so browsers and */* get JSON
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null) return JSON;
+
+        double cbor = 0;
+        double json = 0;
+        for (String part : accept.split(",")) {
+            String[] fields = part.trim().split(";");
+            String type = fields[0].trim().toLowerCase();
+            if (type.equals(CBOR.contentType)) {
+                cbor = quality(fields);
+            } else if (type.equals(JSON.contentType)) {
+                json = quality(fields);
+            }
+        }
+        return cbor > 0 && cbor >= json ? CBOR : JSON;
+    }
+
+    private static double quality(String[] fields) {
+        for (int i = 1; i < fields.length; i++) {
+            String parameter = fields[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public ResponseWriter open(OutputStream out) {
+        if (this == CBOR) {
+            return new CborWriter(new BufferedOutputStream(out));
+        }
+        return new JsonResponseWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
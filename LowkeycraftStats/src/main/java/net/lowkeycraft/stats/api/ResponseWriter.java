@@ -0,0 +1,33 @@
+package net.lowkeycraft.stats.api;
+
+import java.io.IOException;
+
+// What API routes write their bodies with, so each body is written once, straight from typed data,
+// whatever format the client asked for. Follows JsonWriter: objects take a name before every value
+public interface ResponseWriter {
+
+    ResponseWriter beginObject() throws IOException;
+
+    ResponseWriter endObject() throws IOException;
+
+    ResponseWriter beginArray() throws IOException;
+
+    ResponseWriter endArray() throws IOException;
+
+    ResponseWriter name(String name) throws IOException;
+
+    // null is written as null
+    ResponseWriter value(String value) throws IOException;
+
+    ResponseWriter value(boolean value) throws IOException;
+
+    ResponseWriter value(long value) throws IOException;
+
+    ResponseWriter value(double value) throws IOException;
+
+    ResponseWriter value(float value) throws IOException;
+
+    ResponseWriter nullValue() throws IOException;
+
+    void flush() throws IOException;
+}
@@ -0,0 +1,92 @@
+package net.lowkeycraft.stats.api;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Jetty thread pool that starts a virtual thread for every task, so a request blocked on the database
+// holds no platform thread. Jetty starts and stops it with the server. The plugin is built for Java 17,
+// so the Java 21 executor is looked up by reflection; isSupported() tells whether this JVM has it.
+// At most maxThreads tasks run at once, the same limit the platform pool has; the rest wait parked on
+// their virtual thread like queued jobs. Jetty's own tasks and open live streams take a permit too
+final class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final Semaphore permits;
+    private volatile ExecutorService executor;
+
+    VirtualThreadPool(int maxThreads) {
+        this.permits = new Semaphore(Math.max(1, maxThreads));
+    }
+
+    static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        executor.shutdown();
+        // Jetty has already closed the connectors, so this only waits for requests in progress
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        // Acquired on the new virtual thread, so the caller (often a selector thread) never blocks
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Nothing interrupts these threads; drop the task like a rejected job if it happens
+                Thread.currentThread().interrupt();
+                return;
+            }
+            running.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        ExecutorService current = executor;
+        if (current != null) {
+            current.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    // Threads are made per task, none wait around
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return permits.availablePermits() == 0;
+    }
+}
@@ -1,31 +1,92 @@
 package net.lowkeycraft.stats.api;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.DatabaseExecutor;
+import net.lowkeycraft.stats.database.DatabaseManager;
+import net.lowkeycraft.stats.database.DatabaseProfiler;
+import net.lowkeycraft.stats.database.LiveDataChangeTracker;
+import net.lowkeycraft.stats.database.OnlinePlayer;
+import net.lowkeycraft.stats.database.PlayerCursor;
+import net.lowkeycraft.stats.database.PlayerListHandler;
+import net.lowkeycraft.stats.database.PlayerListRow;
+import net.lowkeycraft.stats.database.PlayerProfile;
+import net.lowkeycraft.stats.database.PlayerProfileCache;
+import net.lowkeycraft.stats.database.PlayerSort;
+import net.lowkeycraft.stats.database.Stat;
+import net.lowkeycraft.stats.database.UsernameIndex;
+import net.lowkeycraft.stats.leaderboard.LeaderboardEntry;
+import net.lowkeycraft.stats.leaderboard.LeaderboardManager;
+import net.lowkeycraft.stats.leaderboard.Ranking;
+import net.lowkeycraft.stats.metrics.LatencyHistogram;
+import net.lowkeycraft.stats.metrics.Metrics;
+import net.lowkeycraft.stats.metrics.PrometheusText;
+import net.lowkeycraft.stats.utils.ConfigManager;
+import net.lowkeycraft.stats.utils.TimeFormat;
 import spark.Request;
 import spark.Response;
+import spark.Route;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.DeflaterOutputStream;
 
 import static spark.Spark.*;
 
 public class WebServer {
 
+    // Same names as /api/player/:username
+    private static final Map<Stat, String> STAT_JSON_NAMES = new EnumMap<>(Map.of(
+        Stat.BLOCKS_BROKEN, "blocksBreaken",
+        Stat.BLOCKS_PLACED, "blocksPlaced",
+        Stat.DEATHS, "deaths",
+        Stat.PLAYER_KILLS, "playerKills",
+        Stat.MOB_KILLS, "mobKills",
+        Stat.DISTANCE_TRAVELED, "distanceTraveled",
+        Stat.ITEMS_CRAFTED, "itemsCrafted",
+        Stat.FOOD_CONSUMED, "foodConsumed"));
+
+    // Request attributes set by compressed(): the negotiated coding, and the stream openResponse compressed into
+    private static final String ENCODING = "lowkeycraft.encoding";
+    private static final String COMPRESSED_STREAM = "lowkeycraft.compressedStream";
+    // The negotiated ResponseFormat, set by format()
+    private static final String FORMAT = "lowkeycraft.format";
+
+    // A database read that was rejected or took longer than web-server.request-timeout
+    private static class DatabaseBusyException extends RuntimeException {
+    }
+
     private final LowkeycraftStats plugin;
     private final Gson gson;
-    private final SimpleDateFormat dateFormat;
+    private final LongAdder busyResponses = new LongAdder();
+    private boolean virtualThreads;
+    // Start of every ETag. Versions restart at zero with the plugin, so tags from before a restart must not match
+    private final String etagEpoch = Long.toString(System.currentTimeMillis(), 36);
 
     public WebServer(LowkeycraftStats plugin) {
         this.plugin = plugin;
         this.gson = new Gson();
-        this.dateFormat = new SimpleDateFormat("MMM dd, yyyy 'at' HH:mm");
     }
 
     public void start() {
         int port = plugin.getConfigManager().getWebServerPort();
         port(port);
+        configureThreads();
 
         // Enable CORS if configured
         if (plugin.getConfigManager().isCorsEnabled()) {
@@ -35,10 +96,31 @@ public class WebServer {
         // Routes
         setupRoutes();
 
-        plugin.getLogger().info("Web API server started on port " + port);
+        plugin.getLogger().info("Web API server started on port " + port +
+            (virtualThreads ? " with virtual threads" : ""));
+    }
+
+    // Has to run before the first route is added, which is when Spark creates the server
+    private void configureThreads() {
+        ConfigManager config = plugin.getConfigManager();
+        int minThreads = config.getWebMinThreads();
+        int maxThreads = Math.max(minThreads, config.getWebMaxThreads());
+        if ("virtual".equalsIgnoreCase(config.getWebThreadMode())) {
+            if (VirtualThreadPool.isSupported()) {
+                EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY,
+                    new EmbeddedJettyFactory().withThreadPool(new VirtualThreadPool(maxThreads)));
+                virtualThreads = true;
+                return;
+            }
+            plugin.getLogger().warning("Virtual threads need Java 21, using platform threads for the web server");
+        }
+
+        threadPool(maxThreads, minThreads, config.getWebThreadIdleTimeout() * 1000);
     }
 
     public void stop() {
+        // Open streams would otherwise hold their threads until the next heartbeat
+        plugin.getLiveStream().closeAll();
         spark.Spark.stop();
         plugin.getLogger().info("Web API server stopped");
     }
@@ -67,184 +149,919 @@ public class WebServer {
 
     private void setupRoutes() {
         // Health check
-        get("/api/health", this::healthCheck);
+        get("/api/health", timed("health", compressed(this::healthCheck)));
 
         // Server stats
-        get("/api/server/stats", this::getServerStats);
+        get("/api/server/stats", timed("server_stats", compressed(this::getServerStats)));
 
         // Player endpoints
-        get("/api/player/:username", this::getPlayerStats);
-        get("/api/players/online", this::getOnlinePlayers);
-        get("/api/players/all", this::getAllPlayers);
+        get("/api/player/:username", timed("player", compressed(this::getPlayerStats)));
+        get("/api/players/online", timed("players_online", compressed(this::getOnlinePlayers)));
+        get("/api/players/all", timed("players_all", compressed(this::getAllPlayers)));
+        get("/api/players/batch", timed("players_batch", compressed(this::getPlayersBatch)));
+        post("/api/players/batch", timed("players_batch", compressed(this::getPlayersBatch)));
+
+        // Leaderboards
+        get("/api/leaderboard/:stat", timed("leaderboard", compressed(this::getLeaderboard)));
+
+        // Live updates; not timed, as a request lasts as long as the subscriber stays
+        get("/api/stream/live", this::streamLive);
 
-        // Leaderboards (future implementation)
-        get("/api/leaderboard/:stat", this::getLeaderboard);
+        // Prometheus scrape target
+        get("/api/metrics", timed("metrics", compressed(this::getMetrics)));
+
+        // Database profiler
+        get("/api/profile", timed("profile", compressed(this::getProfile)));
 
         // Error handling
         exception(Exception.class, this::handleException);
     }
 
-    private String healthCheck(Request req, Response res) {
+    // Times the route under its name in lowkeycraft_http_request_seconds
+    private Route timed(String name, Route route) {
+        LatencyHistogram timer = plugin.getMetrics().histogram(Metrics.HTTP_REQUEST, name);
+        return (req, res) -> {
+            long start = timer.start();
+            try {
+                return route.handle(req, res);
+            } finally {
+                timer.stop(start);
+            }
+        };
+    }
+
+    // Compresses the body when the client accepts gzip or deflate. Streaming routes compress as they write
+    // through openResponse; a returned body is compressed here. Either way the response is committed before
+    // Spark sees it, so Spark does not write or wrap the body again
+    private Route compressed(Route route) {
+        if (!plugin.getConfigManager().isCompressionEnabled()) return route;
+
+        return (req, res) -> {
+            res.header("Vary", "Accept-Encoding");
+            String encoding = Compression.negotiate(req.headers("Accept-Encoding"));
+            if (encoding == null) return route.handle(req, res);
+
+            req.attribute(ENCODING, encoding);
+            Object body = route.handle(req, res);
+
+            DeflaterOutputStream streamed = req.attribute(COMPRESSED_STREAM);
+            if (streamed != null) {
+                streamed.finish();
+                res.raw().flushBuffer();
+                return body;
+            }
+
+            if (!(body instanceof String text) || text.isEmpty() || res.raw().isCommitted()) return body;
+
+            res.header("Content-Encoding", encoding);
+            OutputStream out = Compression.wrap(res.raw().getOutputStream(), encoding);
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.close();
+            return "";
+        };
+    }
+
+    // Sets the ETag and Cache-Control headers, and returns true when the client's copy is still current,
+    // in which case the status is 304 and the route should return without building a body. The tag
+    // differs per format and content coding, as the bytes do, but the coding is ignored when comparing
+    private boolean notModified(Request req, Response res, String tag, int maxAge) {
+        String current = etagEpoch + "-" + tag + (format(req) == ResponseFormat.CBOR ? "-cbor" : "");
+        String encoding = req.attribute(ENCODING);
+        res.header("ETag", "\"" + current + (encoding == null ? "" : "-" + encoding) + "\"");
+        res.header("Cache-Control", maxAge > 0 ? "public, max-age=" + maxAge : "no-cache");
+        res.header("Vary", "Accept");
+
+        String ifNoneMatch = req.headers("If-None-Match");
+        if (ifNoneMatch == null) return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.length() >= 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+                candidate = candidate.substring(1, candidate.length() - 1);
+            }
+            if (candidate.endsWith("-" + Compression.GZIP) || candidate.endsWith("-" + Compression.DEFLATE)) {
+                candidate = candidate.substring(0, candidate.lastIndexOf('-'));
+            }
+
+            if (candidate.equals("*") || candidate.equals(current)) {
+                res.status(304);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Everything shown by /api/player for one player: the write version, stats not flushed yet and the
+    // player's place on every leaderboard, which moves when other players' scores do
+    private String playerTag(UUID uuid) {
+        long tag = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        tag = 31 * tag + plugin.getDatabaseManager().getPlayerVersion(uuid);
+        for (Ranking ranking : plugin.getDatabaseManager().getLeaderboards().getRankings(uuid).values()) {
+            tag = 31 * tag + ranking.rank();
+            tag = 31 * tag + ranking.total();
+        }
+        return Long.toHexString(tag);
+    }
+
+    // Waits for a read on the database read executor, at most web-server.request-timeout. The executor
+    // bounds how many reads run at once, however many request threads are waiting on them
+    private <T> T await(CompletableFuture<T> read) {
+        try {
+            return read.get(plugin.getConfigManager().getRequestTimeout(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // The read still finishes in the background; the client is not kept waiting for it
+            throw new DatabaseBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new DatabaseBusyException();
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    // The read queue is full or too slow: answer now rather than queue behind it
+    private String busy(Request req, Response res) {
+        busyResponses.increment();
+        res.status(503);
+        res.header("Retry-After", "1");
+        // Replaces any Cache-Control set with the ETag
+        res.raw().setHeader("Cache-Control", "no-store");
+        return error(req, res, "Server is busy, try again later");
+    }
+
+    private String getMetrics(Request req, Response res) {
         res.type("application/json");
 
-        JsonObject response = new JsonObject();
-        response.addProperty("status", "ok");
-        response.addProperty("plugin", "LowkeycraftStats");
-        response.addProperty("version", "1.0.0");
-        response.addProperty("timestamp", System.currentTimeMillis());
+        if (!plugin.getMetrics().isEnabled()) {
+            res.status(404);
+            return error(req, res, "Metrics are disabled (metrics.enabled in config.yml)");
+        }
 
-        return gson.toJson(response);
+        String denied = checkApiKey(req, res, "scrape metrics");
+        if (denied != null) return denied;
+
+        PrometheusText text = new PrometheusText();
+        plugin.getMetrics().write(text);
+
+        // Current values, read at scrape time
+        DatabaseManager database = plugin.getDatabaseManager();
+        text.family("lowkeycraft_database_queue_depth", "gauge", "Tasks waiting for a database worker");
+        text.sample("lowkeycraft_database_queue_depth", "{executor=\"writer\"}", database.getWriteExecutor().getQueueDepth());
+        text.sample("lowkeycraft_database_queue_depth", "{executor=\"reader\"}", database.getReadExecutor().getQueueDepth());
+        text.family("lowkeycraft_database_rejected_tasks_total", "counter", "Database tasks rejected because the queue was full");
+        text.sample("lowkeycraft_database_rejected_tasks_total", "{executor=\"writer\"}", database.getWriteExecutor().getRejectedTasks());
+        text.sample("lowkeycraft_database_rejected_tasks_total", "{executor=\"reader\"}", database.getReadExecutor().getRejectedTasks());
+
+        text.family("lowkeycraft_statement_cache_requests_total", "counter", "Prepared statement lookups by result");
+        text.sample("lowkeycraft_statement_cache_requests_total", "{result=\"hit\"}", database.getStatements().getHits());
+        text.sample("lowkeycraft_statement_cache_requests_total", "{result=\"miss\"}", database.getStatements().getMisses());
+
+        PlayerProfileCache profileCache = database.getProfileCache();
+        text.family("lowkeycraft_profile_cache_requests_total", "counter", "Player profile lookups by result");
+        text.sample("lowkeycraft_profile_cache_requests_total", "{result=\"hit\"}", profileCache.getHits());
+        text.sample("lowkeycraft_profile_cache_requests_total", "{result=\"miss\"}", profileCache.getMisses());
+        text.family("lowkeycraft_profile_cache_size", "gauge", "Player profiles held in memory");
+        text.sample("lowkeycraft_profile_cache_size", "", profileCache.getSize());
+
+        text.family("lowkeycraft_live_data_rows_total", "counter", "Live data rows by outcome of the change check");
+        text.sample("lowkeycraft_live_data_rows_total", "{outcome=\"written\"}", database.getLiveDataChanges().getWrittenRows());
+        text.sample("lowkeycraft_live_data_rows_total", "{outcome=\"skipped\"}", database.getLiveDataChanges().getSkippedRows());
+
+        LiveStream liveStream = plugin.getLiveStream();
+        text.family("lowkeycraft_stream_subscribers", "gauge", "Open /api/stream/live connections");
+        text.sample("lowkeycraft_stream_subscribers", "", liveStream.getSubscriberCount());
+        text.family("lowkeycraft_stream_dropped_total", "counter", "Stream subscribers disconnected for falling behind");
+        text.sample("lowkeycraft_stream_dropped_total", "", liveStream.getDroppedSubscribers());
+
+        text.family("lowkeycraft_http_busy_total", "counter", "Requests answered with 503 because database reads were backed up");
+        text.sample("lowkeycraft_http_busy_total", "", busyResponses.sum());
+
+        res.type(PrometheusText.CONTENT_TYPE);
+        return text.toString();
     }
 
-    private String getServerStats(Request req, Response res) {
+    private String getProfile(Request req, Response res) {
         res.type("application/json");
 
-        try {
-            JsonObject response = new JsonObject();
-            response.addProperty("success", true);
+        DatabaseProfiler profiler = plugin.getDatabaseManager().getProfiler();
+        if (!profiler.isEnabled()) {
+            res.status(404);
+            return error(req, res, "The profiler is disabled (profiler.enabled in config.yml)");
+        }
+
+        String denied = checkApiKey(req, res, "read the profiler");
+        if (denied != null) return denied;
+
+        return respond(req, res, "profile", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+
+            out.name("mainThreadCalls").beginArray();
+            for (DatabaseProfiler.MainThreadCall call : profiler.getMainThreadCalls()) {
+                out.beginObject();
+                out.name("operation").value(call.operation());
+                out.name("callSite").value(call.callSite());
+                out.name("count").value(call.count());
+                out.name("maxMillis").value(call.maxNanos() / 1_000_000.0);
+                out.name("lastSeen").value(call.lastSeen());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("slowest").beginArray();
+            for (DatabaseProfiler.SlowOperation operation : profiler.getSlowest()) {
+                out.beginObject();
+                out.name("operation").value(operation.operation());
+                out.name("millis").value(operation.nanos() / 1_000_000.0);
+                out.name("timestamp").value(operation.timestamp());
+                out.name("thread").value(operation.thread());
+                out.name("mainThread").value(operation.mainThread());
+                out.name("parameters").value(operation.parameters());
+                out.name("sql").beginArray();
+                for (String sql : operation.sql()) {
+                    out.value(sql);
+                }
+                out.endArray();
+                out.endObject();
+            }
+            out.endArray();
+
+            out.endObject();
+        });
+    }
+
+    // Admin routes need web-server.api-key to be set and sent. Returns the error body, or null when allowed
+    private String checkApiKey(Request req, Response res, String action) {
+        String apiKey = plugin.getConfigManager().getApiKey();
+        if (apiKey.isEmpty()) {
+            res.status(403);
+            return error(req, res, "Set web-server.api-key to " + action);
+        }
+        if (!hasApiKey(req, apiKey)) {
+            res.status(401);
+            res.header("WWW-Authenticate", "Bearer");
+            return error(req, res, "Missing or wrong API key");
+        }
+        return null;
+    }
+
+    // Accepts the key as a bearer token, which is what Prometheus sends, or in X-API-Key
+    private boolean hasApiKey(Request req, String apiKey) {
+        String provided = req.headers("X-API-Key");
+        String authorization = req.headers("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            provided = authorization.substring("Bearer ".length()).trim();
+        }
+        return provided != null && MessageDigest.isEqual(
+            provided.getBytes(StandardCharsets.UTF_8), apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String healthCheck(Request req, Response res) {
+        res.type("application/json");
+
+        DatabaseManager database = plugin.getDatabaseManager();
+        return respond(req, res, "health check", out -> {
+            out.beginObject();
+            out.name("status").value("ok");
+            out.name("plugin").value("LowkeycraftStats");
+            out.name("version").value("1.0.0");
+            out.name("timestamp").value(System.currentTimeMillis());
+
+            // Database executor load
+            out.name("database").beginObject();
+            out.name("reads");
+            writeExecutorStats(out, database.getReadExecutor());
+            out.name("writes");
+            writeExecutorStats(out, database.getWriteExecutor());
+            out.name("statementCache").beginObject();
+            out.name("hits").value(database.getStatements().getHits());
+            out.name("misses").value(database.getStatements().getMisses());
+            out.endObject();
+            out.endObject();
+
+            // Live data writes since startup
+            LiveDataChangeTracker liveDataChanges = database.getLiveDataChanges();
+            out.name("liveData").beginObject();
+            out.name("rowsWritten").value(liveDataChanges.getWrittenRows());
+            out.name("rowsSkipped").value(liveDataChanges.getSkippedRows());
+            out.endObject();
 
-            JsonObject data = new JsonObject();
-            data.addProperty("totalPlayers", plugin.getDatabaseManager().getTotalPlayers());
-            data.addProperty("onlinePlayers", plugin.getDatabaseManager().getOnlinePlayerCount());
-            data.addProperty("serverName", plugin.getServer().getServerName());
-            data.addProperty("maxPlayers", plugin.getServer().getMaxPlayers());
-            data.addProperty("timestamp", System.currentTimeMillis());
+            // Profile cache effectiveness
+            PlayerProfileCache profileCache = database.getProfileCache();
+            long hits = profileCache.getHits();
+            long misses = profileCache.getMisses();
+            out.name("profileCache").beginObject();
+            out.name("size").value(profileCache.getSize());
+            out.name("maxSize").value(profileCache.getMaxSize());
+            out.name("hits").value(hits);
+            out.name("misses").value(misses);
+            out.name("hitRate").value(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            out.name("evictions").value(profileCache.getEvictions());
+            out.endObject();
 
-            response.add("data", data);
-            return gson.toJson(response);
+            // Lookups of names that never joined are answered from memory
+            UsernameIndex usernameIndex = database.getUsernameIndex();
+            out.name("usernameIndex").beginObject();
+            out.name("size").value(usernameIndex.getSize());
+            out.name("misses").value(usernameIndex.getMisses());
+            out.endObject();
 
+            // Live stream subscribers
+            out.name("stream").beginObject();
+            out.name("subscribers").value(plugin.getLiveStream().getSubscriberCount());
+            out.name("dropped").value(plugin.getLiveStream().getDroppedSubscribers());
+            out.endObject();
+
+            // Request threads, and requests turned away while database reads were backed up
+            out.name("web").beginObject();
+            out.name("threads").value(virtualThreads ? "virtual" : "platform");
+            out.name("busyResponses").value(busyResponses.sum());
+            out.endObject();
+
+            out.endObject();
+        });
+    }
+
+    private void writeExecutorStats(ResponseWriter out, DatabaseExecutor executor) throws IOException {
+        out.beginObject();
+        out.name("queueDepth").value(executor.getQueueDepth());
+        out.name("queueCapacity").value(executor.getQueueCapacity());
+        out.name("activeWorkers").value(executor.getActiveWorkers());
+        out.name("saturation").value(executor.getSaturation());
+        out.name("rejectedTasks").value(executor.getRejectedTasks());
+        out.endObject();
+    }
+
+    private String getServerStats(Request req, Response res) {
+        res.type("application/json");
+
+        // The counts only change when players join or quit. The timestamp is left out of the tag, so a
+        // 304 keeps the client's older one
+        String tag = plugin.getDatabaseManager().getRosterVersion() + "-" + plugin.getServer().getMaxPlayers();
+        if (notModified(req, res, tag, plugin.getConfigManager().getCacheMaxAge("server-stats", 10))) return "";
+
+        int totalPlayers;
+        int onlinePlayers;
+        try {
+            DatabaseManager database = plugin.getDatabaseManager();
+            CompletableFuture<Integer> total = database.getTotalPlayersAsync();
+            CompletableFuture<Integer> online = database.getOnlinePlayerCountAsync();
+            totalPlayers = await(total);
+            onlinePlayers = await(online);
+        } catch (DatabaseBusyException e) {
+            return busy(req, res);
         } catch (Exception e) {
-            return createErrorResponse("Failed to get server stats: " + e.getMessage());
+            return error(req, res, "Failed to get server stats: " + e.getMessage());
         }
+
+        return respond(req, res, "server stats", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+            out.name("data").beginObject();
+            out.name("totalPlayers").value(totalPlayers);
+            out.name("onlinePlayers").value(onlinePlayers);
+            out.name("serverName").value(plugin.getServer().getServerName());
+            out.name("maxPlayers").value(plugin.getServer().getMaxPlayers());
+            out.name("timestamp").value(System.currentTimeMillis());
+            out.endObject();
+            out.endObject();
+        });
     }
 
     private String getPlayerStats(Request req, Response res) {
         res.type("application/json");
         String username = req.params(":username");
 
+        // Tagged before the profile is read, so a write that lands in between changes the next request's tag
+        UUID uuid = plugin.getDatabaseManager().getUsernameIndex().get(username);
+        if (uuid != null && notModified(req, res, playerTag(uuid), plugin.getConfigManager().getCacheMaxAge("player", 5))) {
+            return "";
+        }
+
+        PlayerProfile profile;
         try {
-            Map<String, Object> playerData = plugin.getDatabaseManager().getPlayerData(username);
-
-            if (playerData == null) {
-                JsonObject response = new JsonObject();
-                response.addProperty("success", true);
-                response.addProperty("playerFound", false);
-                response.addProperty("message", "Player not found");
-                return gson.toJson(response);
-            }
+            profile = await(plugin.getDatabaseManager().getPlayerDataAsync(username));
+        } catch (DatabaseBusyException e) {
+            return busy(req, res);
+        } catch (Exception e) {
+            return error(req, res, "Failed to get player stats: " + e.getMessage());
+        }
 
-            JsonObject response = new JsonObject();
-            response.addProperty("success", true);
-            response.addProperty("playerFound", true);
+        if (profile == null) {
+            return respond(req, res, "player stats", out -> {
+                out.beginObject();
+                out.name("success").value(true);
+                out.name("playerFound").value(false);
+                out.name("message").value("Player not found");
+                out.endObject();
+            });
+        }
 
-            // Convert player data to JSON-friendly format
-            JsonObject data = convertPlayerDataToJson(playerData);
-            response.add("data", data);
+        return respond(req, res, "player stats", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+            out.name("playerFound").value(true);
+            out.name("data");
+            writePlayerProfile(out, profile);
+            out.endObject();
+        });
+    }
+
+    private String getOnlinePlayers(Request req, Response res) {
+        res.type("application/json");
 
-            return gson.toJson(response);
+        String tag = Long.toString(plugin.getDatabaseManager().getRosterVersion());
+        if (notModified(req, res, tag, plugin.getConfigManager().getCacheMaxAge("players-online", 5))) return "";
 
+        List<OnlinePlayer> onlinePlayers;
+        try {
+            onlinePlayers = await(plugin.getDatabaseManager().getOnlinePlayersAsync());
+        } catch (DatabaseBusyException e) {
+            return busy(req, res);
         } catch (Exception e) {
-            return createErrorResponse("Failed to get player stats: " + e.getMessage());
+            return error(req, res, "Failed to get online players: " + e.getMessage());
         }
+
+        return respond(req, res, "online players", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+            out.name("data").beginArray();
+            for (OnlinePlayer player : onlinePlayers) {
+                // uuid first, the order Gson gave the HashMap these used to be
+                out.beginObject();
+                out.name("uuid").value(player.uuid());
+                out.name("username").value(player.username());
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        });
     }
 
-    private String getOnlinePlayers(Request req, Response res) {
+    private String getAllPlayers(Request req, Response res) {
         res.type("application/json");
 
+        PlayerSort sort = PlayerSort.fromName(Optional.ofNullable(req.queryParams("sort")).orElse("username"));
+        if (sort == null) {
+            res.status(400);
+            return error(req, res, "Unknown sort (available: " + String.join(", ", PlayerSort.getNames()) + ")");
+        }
+
+        String order = req.queryParams("order");
+        if (order != null && !"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            res.status(400);
+            return error(req, res, "order must be asc or desc");
+        }
+        boolean descending = order == null ? sort.isDescendingByDefault() : "desc".equalsIgnoreCase(order);
+
+        int limit;
         try {
-            List<Map<String, Object>> onlinePlayers = plugin.getDatabaseManager().getOnlinePlayers();
+            limit = parseIntParam(req, "limit", plugin.getConfigManager().getPlayersPageSize());
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return error(req, res, "limit must be a number");
+        }
+        if (limit < 1) {
+            res.status(400);
+            return error(req, res, "limit must be at least 1");
+        }
+        limit = Math.min(limit, plugin.getConfigManager().getPlayersMaxPageSize());
 
-            JsonObject response = new JsonObject();
-            response.addProperty("success", true);
-            response.add("data", gson.toJsonTree(onlinePlayers));
+        PlayerCursor cursor = null;
+        String token = req.queryParams("cursor");
+        if (token != null && !token.isEmpty()) {
+            try {
+                cursor = PlayerCursor.decode(token);
+            } catch (IllegalArgumentException e) {
+                res.status(400);
+                return error(req, res, e.getMessage());
+            }
+            // A cursor only makes sense for the ordering it was issued for
+            if (!cursor.sort().equals(sort.getName()) || cursor.descending() != descending) {
+                res.status(400);
+                return error(req, res, "Cursor does not match sort and order");
+            }
+        }
 
-            return gson.toJson(response);
+        // The page is streamed from this thread as rows are read, so it cannot wait on the read executor;
+        // it still backs off when the read executor's queue is full
+        if (plugin.getDatabaseManager().getReadExecutor().isSaturated()) {
+            return busy(req, res);
+        }
 
+        PlayerListWriter writer = new PlayerListWriter(req, res, sort.getName(), descending, limit);
+        try {
+            plugin.getDatabaseManager().streamPlayers(sort, descending, cursor, limit, writer);
+        } catch (IllegalArgumentException e) {
+            res.status(400);
+            return error(req, res, e.getMessage());
         } catch (Exception e) {
-            return createErrorResponse("Failed to get online players: " + e.getMessage());
+            if (!writer.isStarted()) {
+                return error(req, res, "Failed to get all players: " + e.getMessage());
+            }
+            // Headers are already sent, so all we can do is cut the response short
+            plugin.getLogger().severe("Error streaming player list: " + e.getMessage());
         }
+
+        return "";
     }
 
-    private String getAllPlayers(Request req, Response res) {
+    // Many profiles in one request: names or uuids in ?players=a,b,c or as a JSON array in a POST body
+    private String getPlayersBatch(Request req, Response res) {
         res.type("application/json");
 
-        try {
-            // This would be a more complex query - for now, return basic info
-            JsonObject response = new JsonObject();
-            response.addProperty("success", true);
-            response.addProperty("totalPlayers", plugin.getDatabaseManager().getTotalPlayers());
-            response.addProperty("message", "Full player list endpoint not yet implemented");
+        Set<String> requested = new LinkedHashSet<>();
+        if ("POST".equals(req.requestMethod())) {
+            try {
+                JsonElement body = JsonParser.parseString(req.body());
+                if (!body.isJsonArray()) {
+                    res.status(400);
+                    return error(req, res, "Body must be a JSON array of names or uuids");
+                }
+                for (JsonElement element : body.getAsJsonArray()) {
+                    requested.add(element.getAsString().trim());
+                }
+            } catch (RuntimeException e) {
+                res.status(400);
+                return error(req, res, "Body must be a JSON array of names or uuids");
+            }
+        } else {
+            String players = req.queryParams("players");
+            if (players != null) {
+                for (String player : players.split(",")) {
+                    requested.add(player.trim());
+                }
+            }
+        }
+        requested.remove("");
 
-            return gson.toJson(response);
+        if (requested.isEmpty()) {
+            res.status(400);
+            return error(req, res, "No players given");
+        }
+        int max = plugin.getConfigManager().getBatchMaxPlayers();
+        if (requested.size() > max) {
+            res.status(400);
+            return error(req, res, "At most " + max + " players per request");
+        }
 
+        Map<String, PlayerProfile> profiles;
+        try {
+            profiles = await(plugin.getDatabaseManager().getPlayersDataAsync(new ArrayList<>(requested)));
+        } catch (DatabaseBusyException e) {
+            return busy(req, res);
         } catch (Exception e) {
-            return createErrorResponse("Failed to get all players: " + e.getMessage());
+            return error(req, res, "Failed to get players: " + e.getMessage());
+        }
+
+        return respond(req, res, "player batch", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+
+            // Request order; a player asked for by both name and uuid is listed once
+            Set<UUID> written = new HashSet<>();
+            out.name("data").beginArray();
+            for (PlayerProfile profile : profiles.values()) {
+                if (written.add(profile.uuid())) {
+                    writePlayerProfile(out, profile);
+                }
+            }
+            out.endArray();
+
+            out.name("notFound").beginArray();
+            for (String player : requested) {
+                if (!profiles.containsKey(player)) {
+                    out.value(player);
+                }
+            }
+            out.endArray();
+
+            out.endObject();
+        });
+    }
+
+    // Writes the player list straight to the response as rows come out of the result set
+    private class PlayerListWriter implements PlayerListHandler {
+
+        private final Request req;
+        private final Response res;
+        private final String sort;
+        private final boolean descending;
+        private final int limit;
+        private ResponseWriter out;
+
+        PlayerListWriter(Request req, Response res, String sort, boolean descending, int limit) {
+            this.req = req;
+            this.res = res;
+            this.sort = sort;
+            this.descending = descending;
+            this.limit = limit;
+        }
+
+        boolean isStarted() {
+            return out != null;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out = openResponse(req, res);
+            out.beginObject();
+            out.name("success").value(true);
+            out.name("sort").value(sort);
+            out.name("order").value(descending ? "desc" : "asc");
+            out.name("limit").value(limit);
+            out.name("data").beginArray();
+        }
+
+        @Override
+        public void row(PlayerListRow row) throws IOException {
+            out.beginObject();
+            out.name("username").value(row.username());
+            out.name("uuid").value(row.uuid());
+            out.name("isOnline").value(row.online());
+            out.name("firstJoinTimestamp").value(row.firstJoin());
+            out.name("lastSeenTimestamp").value(row.lastSeen());
+            out.name("playtimeMs").value(row.playtime());
+            out.name("playtime").value(formatPlaytime(row.playtime()));
+            double[] stats = row.stats();
+            writeStats(out, stat -> stats[stat.ordinal()]);
+            out.endObject();
+        }
+
+        @Override
+        public void end(PlayerCursor next) throws IOException {
+            out.endArray();
+            out.name("nextCursor").value(next == null ? null : next.encode());
+            out.endObject();
+            out.flush();
+        }
+    }
+
+    // Body format the client asked for in Accept, worked out once per request
+    private ResponseFormat format(Request req) {
+        ResponseFormat format = req.attribute(FORMAT);
+        if (format == null) {
+            format = ResponseFormat.negotiate(req.headers("Accept"));
+            req.attribute(FORMAT, format);
+        }
+        return format;
+    }
+
+    // Streams straight to the response in the negotiated format instead of building the body first.
+    // Compressed when compressed() negotiated a coding; it finishes the stream after the route returns
+    private ResponseWriter openResponse(Request req, Response res) throws IOException {
+        ResponseFormat format = format(req);
+        res.type(format.getContentType());
+
+        OutputStream out = res.raw().getOutputStream();
+        String encoding = req.attribute(ENCODING);
+        if (encoding != null) {
+            res.header("Content-Encoding", encoding);
+            out = Compression.wrap(out, encoding);
+            req.attribute(COMPRESSED_STREAM, out);
+        }
+        return format.open(out);
+    }
+
+    private interface Body {
+        void write(ResponseWriter out) throws IOException;
+    }
+
+    // Writes a whole body with openResponse. Returns the empty body for the route to return
+    private String respond(Request req, Response res, String name, Body body) {
+        try {
+            ResponseWriter out = openResponse(req, res);
+            body.write(out);
+            out.flush();
+        } catch (IOException e) {
+            // Headers are already sent, so all we can do is cut the response short
+            plugin.getLogger().severe("Error writing " + name + ": " + e.getMessage());
+        }
+        return "";
+    }
+
+    // Stats indexed by Stat ordinal, whole counts without a decimal point
+    private void writeStats(ResponseWriter out, ToDoubleFunction<Stat> stats) throws IOException {
+        for (Stat stat : Stat.values()) {
+            double value = stats.applyAsDouble(stat);
+            out.name(STAT_JSON_NAMES.get(stat));
+            if (stat.isFractional()) {
+                out.value(value);
+            } else {
+                out.value((long) value);
+            }
+        }
+    }
+
+    // Server-Sent Events of live player state. Holds the request thread for as long as the subscriber stays
+    private String streamLive(Request req, Response res) {
+        LiveStream liveStream = plugin.getLiveStream();
+        if (liveStream.getSubscriberCount() >= plugin.getConfigManager().getStreamMaxSubscribers()) {
+            res.type("application/json");
+            res.status(503);
+            res.header("Retry-After", "30");
+            return error(req, res, "Too many live streams open, try again later");
+        }
+
+        // Filters: players by name or uuid, worlds by name, both comma separated
+        Set<UUID> players = null;
+        String playerParam = req.queryParams("players");
+        if (playerParam != null && !playerParam.isEmpty()) {
+            players = new HashSet<>();
+            for (String name : playerParam.split(",")) {
+                UUID uuid = resolvePlayer(name.trim());
+                if (uuid == null) {
+                    res.type("application/json");
+                    res.status(404);
+                    return error(req, res, "Unknown player: " + name.trim());
+                }
+                players.add(uuid);
+            }
+        }
+
+        Set<String> worlds = null;
+        String worldParam = req.queryParams("worlds");
+        if (worldParam != null && !worldParam.isEmpty()) {
+            worlds = new HashSet<>();
+            for (String world : worldParam.split(",")) {
+                worlds.add(world.trim());
+            }
+        }
+
+        long lastEventId = 0;
+        String lastEventHeader = req.headers("Last-Event-ID");
+        if (lastEventHeader != null) {
+            try {
+                lastEventId = Long.parseLong(lastEventHeader.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours, start from a snapshot
+            }
+        }
+
+        res.type("text/event-stream");
+        res.header("Cache-Control", "no-cache");
+        // Stops nginx from buffering the stream
+        res.header("X-Accel-Buffering", "no");
+
+        try {
+            liveStream.serve(new LiveStream.Subscriber(players, worlds, lastEventId), res.raw().getOutputStream(),
+                plugin.getConfigManager().getStreamHeartbeat() * 1000L);
+        } catch (IOException e) {
+            // The subscriber went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return "";
+    }
+
+    private UUID resolvePlayer(String nameOrId) {
+        if (nameOrId.length() == 36) {
+            try {
+                return UUID.fromString(nameOrId);
+            } catch (IllegalArgumentException e) {
+                // Not a uuid, try it as a name
+            }
         }
+        return plugin.getDatabaseManager().getUsernameIndex().get(nameOrId);
     }
 
     private String getLeaderboard(Request req, Response res) {
         res.type("application/json");
         String stat = req.params(":stat");
+        LeaderboardManager leaderboards = plugin.getDatabaseManager().getLeaderboards();
 
-        JsonObject response = new JsonObject();
-        response.addProperty("success", false);
-        response.addProperty("message", "Leaderboard endpoint not yet implemented for stat: " + stat);
+        if (!leaderboards.isTracked(stat)) {
+            res.status(404);
+            return error(req, res, "Unknown stat: " + stat + " (available: " +
+                String.join(", ", leaderboards.getTrackedStats()) + ")");
+        }
 
-        return gson.toJson(response);
+        int limit;
+        int offset;
+        try {
+            limit = parseIntParam(req, "limit", plugin.getConfigManager().getLeaderboardDefaultLimit());
+            offset = parseIntParam(req, "offset", 0);
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return error(req, res, "limit and offset must be numbers");
+        }
+
+        if (limit < 1 || offset < 0) {
+            res.status(400);
+            return error(req, res, "limit must be at least 1 and offset cannot be negative");
+        }
+
+        // Only the top entries are kept in memory
+        limit = Math.min(limit, leaderboards.getCapacity());
+
+        // Offset and limit are part of the URL, so one version covers every page of the board
+        String tag = stat + "-" + leaderboards.getVersion(stat);
+        if (notModified(req, res, tag, plugin.getConfigManager().getCacheMaxAge("leaderboard", 30))) return "";
+
+        List<LeaderboardEntry> entries = leaderboards.getPage(stat, offset, limit);
+        boolean fractional = leaderboards.isFractional(stat);
+
+        int first = offset;
+        int count = limit;
+        return respond(req, res, "leaderboard", out -> {
+            out.beginObject();
+            out.name("success").value(true);
+            out.name("stat").value(stat);
+            out.name("offset").value(first);
+            out.name("limit").value(count);
+
+            out.name("data").beginArray();
+            int rank = first;
+            for (LeaderboardEntry entry : entries) {
+                out.beginObject();
+                out.name("rank").value(++rank);
+                // Left out rather than null for a name that is not known yet, as Gson did
+                String username = leaderboards.getUsername(entry.uuid());
+                if (username != null) {
+                    out.name("username").value(username);
+                }
+                out.name("uuid").value(entry.uuid().toString());
+                if (fractional) {
+                    out.name("value").value(entry.value());
+                } else {
+                    out.name("value").value((long) entry.value());
+                }
+                out.endObject();
+            }
+            out.endArray();
+
+            out.endObject();
+        });
+    }
+
+    private int parseIntParam(Request req, String name, int defaultValue) {
+        String value = req.queryParams(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
     }
 
-    private JsonObject convertPlayerDataToJson(Map<String, Object> playerData) {
-        JsonObject json = new JsonObject();
+    private void writePlayerProfile(ResponseWriter out, PlayerProfile profile) throws IOException {
+        out.beginObject();
 
         // Basic info
-        json.addProperty("username", (String) playerData.get("username"));
-        json.addProperty("uuid", (String) playerData.get("uuid"));
-        json.addProperty("isOnline", (Boolean) playerData.get("is_online"));
+        out.name("username").value(profile.username());
+        out.name("uuid").value(profile.uuid().toString());
+        out.name("isOnline").value(profile.online());
 
         // Timestamps
-        long firstJoin = (Long) playerData.get("first_join");
-        long lastSeen = (Long) playerData.get("last_seen");
-        json.addProperty("firstJoinTimestamp", firstJoin);
-        json.addProperty("lastSeenTimestamp", lastSeen);
-        json.addProperty("firstJoin", dateFormat.format(new Date(firstJoin)));
-        json.addProperty("lastSeen", (Boolean) playerData.get("is_online") ? "Now" :
-            dateFormat.format(new Date(lastSeen)));
+        out.name("firstJoinTimestamp").value(profile.firstJoin());
+        out.name("lastSeenTimestamp").value(profile.lastSeen());
+        out.name("firstJoin").value(TimeFormat.formatDate(profile.firstJoin()));
+        out.name("lastSeen").value(profile.online() ? "Now" : TimeFormat.formatDate(profile.lastSeen()));
 
         // Playtime formatting
-        long playtimeMs = (Long) playerData.get("playtime");
-        json.addProperty("playtimeMs", playtimeMs);
-        json.addProperty("playtime", formatPlaytime(playtimeMs));
+        out.name("playtimeMs").value(profile.playtime());
+        out.name("playtime").value(formatPlaytime(profile.playtime()));
 
         // Statistics
-        json.addProperty("blocksBreaken", (Integer) playerData.get("blocks_broken")); // Keep original typo for compatibility
-        json.addProperty("blocksPlaced", (Integer) playerData.get("blocks_placed"));
-        json.addProperty("deaths", (Integer) playerData.get("deaths"));
-        json.addProperty("playerKills", (Integer) playerData.get("player_kills"));
-        json.addProperty("mobKills", (Integer) playerData.get("mob_kills"));
-        json.addProperty("distanceTraveled", (Double) playerData.get("distance_traveled"));
-        json.addProperty("itemsCrafted", (Integer) playerData.get("items_crafted"));
-        json.addProperty("foodConsumed", (Integer) playerData.get("food_consumed"));
+        writeStats(out, profile::stat);
+
+        // Rank and percentile per stat, keyed like /api/leaderboard
+        Map<String, Ranking> rankings = plugin.getDatabaseManager().getLeaderboards().getRankings(profile.uuid());
+        out.name("rankings").beginObject();
+        for (Map.Entry<String, Ranking> entry : rankings.entrySet()) {
+            out.name(entry.getKey()).beginObject();
+            out.name("rank").value(entry.getValue().rank());
+            out.name("of").value(entry.getValue().total());
+            out.name("percentile").value(entry.getValue().percentile());
+            out.endObject();
+        }
+        out.endObject();
 
         // Live data (only if online)
-        if ((Boolean) playerData.get("is_online")) {
-            JsonObject liveData = new JsonObject();
-            liveData.addProperty("health", (Double) playerData.get("health"));
-            liveData.addProperty("foodLevel", (Integer) playerData.get("food_level"));
-            liveData.addProperty("saturation", (Double) playerData.get("saturation"));
-            liveData.addProperty("experienceLevel", (Integer) playerData.get("experience_level"));
-            liveData.addProperty("experiencePoints", (Float) playerData.get("experience_points"));
+        if (profile.online()) {
+            out.name("liveData").beginObject();
+            out.name("health").value(profile.health());
+            out.name("foodLevel").value(profile.foodLevel());
+            out.name("saturation").value(profile.saturation());
+            out.name("experienceLevel").value(profile.experienceLevel());
+            out.name("experiencePoints").value(profile.experiencePoints());
 
-            JsonObject location = new JsonObject();
-            location.addProperty("x", (Double) playerData.get("location_x"));
-            location.addProperty("y", (Double) playerData.get("location_y"));
-            location.addProperty("z", (Double) playerData.get("location_z"));
-            location.addProperty("world", (String) playerData.get("world"));
-            liveData.add("location", location);
+            out.name("location").beginObject();
+            out.name("x").value(profile.x());
+            out.name("y").value(profile.y());
+            out.name("z").value(profile.z());
+            // Left out rather than null when there is no live data row, as Gson did
+            if (profile.world() != null) {
+                out.name("world").value(profile.world());
+            }
+            out.endObject();
 
-            json.add("liveData", liveData);
+            out.endObject();
         }
 
-        return json;
+        out.endObject();
     }
 
     private String formatPlaytime(long milliseconds) {
@@ -264,6 +1081,18 @@ public class WebServer {
         }
     }
 
+    // Error body in the negotiated format; the caller sets the status first
+    private String error(Request req, Response res, String message) {
+        return respond(req, res, "error response", out -> {
+            out.beginObject();
+            out.name("success").value(false);
+            out.name("error").value(message);
+            out.name("timestamp").value(System.currentTimeMillis());
+            out.endObject();
+        });
+    }
+
+    // Body for handleException, which Spark writes itself; always JSON
     private String createErrorResponse(String message) {
         JsonObject response = new JsonObject();
         response.addProperty("success", false);
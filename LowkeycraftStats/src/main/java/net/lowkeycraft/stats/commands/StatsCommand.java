@@ -1,6 +1,14 @@
 package net.lowkeycraft.stats.commands;
 
 import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.DatabaseProfiler;
+import net.lowkeycraft.stats.database.LiveDataChangeTracker;
+import net.lowkeycraft.stats.database.LiveDataSnapshot;
+import net.lowkeycraft.stats.database.PlayerProfile;
+import net.lowkeycraft.stats.database.Stat;
+import net.lowkeycraft.stats.leaderboard.LeaderboardManager;
+import net.lowkeycraft.stats.leaderboard.Ranking;
+import net.lowkeycraft.stats.utils.TimeFormat;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -8,15 +16,18 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class StatsCommand implements CommandExecutor {
 
     private final LowkeycraftStats plugin;
     private final DecimalFormat decimalFormat = new DecimalFormat("#.##");
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy 'at' HH:mm");
+
+    // Last /stats lookup per player, only used on the main thread
+    private final Map<UUID, Long> lastLookups = new HashMap<>();
 
     public StatsCommand(LowkeycraftStats plugin) {
         this.plugin = plugin;
@@ -30,6 +41,11 @@ public class StatsCommand implements CommandExecutor {
             return handleReload(sender);
         }
 
+        // Handle profile command
+        if (command.getName().equalsIgnoreCase("statsprofile")) {
+            return handleProfile(sender, args);
+        }
+
         // Handle stats command
         if (command.getName().equalsIgnoreCase("stats")) {
             return handleStats(sender, args);
@@ -58,6 +74,59 @@ public class StatsCommand implements CommandExecutor {
         return true;
     }
 
+    private boolean handleProfile(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("lowkeycraft.stats.admin")) {
+            sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
+                plugin.getConfigManager().getNoPermissionMessage());
+            return true;
+        }
+
+        DatabaseProfiler profiler = plugin.getDatabaseManager().getProfiler();
+        if (!profiler.isEnabled()) {
+            sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
+                ChatColor.RED + "The profiler is disabled. Set profiler.enabled to true and restart the server.");
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            profiler.reset();
+            sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
+                ChatColor.GREEN + "Profiler data cleared.");
+            return true;
+        }
+
+        // Database work on the server thread stalls the tick, so list it first
+        List<DatabaseProfiler.MainThreadCall> calls = profiler.getMainThreadCalls();
+        sender.sendMessage(ChatColor.YELLOW + "=== Server Thread Database Calls ===");
+        if (calls.isEmpty()) {
+            sender.sendMessage(ChatColor.GREEN + "None");
+        }
+        for (DatabaseProfiler.MainThreadCall call : calls) {
+            sender.sendMessage(ChatColor.RED + call.operation() + ChatColor.GRAY + " from " + ChatColor.WHITE +
+                call.callSite() + ChatColor.GRAY + " x" + call.count() + ", max " + formatNanos(call.maxNanos()));
+        }
+
+        List<DatabaseProfiler.SlowOperation> slowest = profiler.getSlowest();
+        sender.sendMessage(ChatColor.YELLOW + "=== Slowest Database Operations ===");
+        if (slowest.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "Nothing recorded yet");
+        }
+        for (DatabaseProfiler.SlowOperation operation : slowest) {
+            sender.sendMessage(ChatColor.GOLD + formatNanos(operation.nanos()) + " " + ChatColor.WHITE +
+                operation.operation() + ChatColor.GRAY + " on " +
+                (operation.mainThread() ? ChatColor.RED : ChatColor.GRAY) + operation.thread() +
+                ChatColor.GRAY + " at " + TimeFormat.formatDate(operation.timestamp()));
+            if (!operation.parameters().isEmpty()) {
+                sender.sendMessage(ChatColor.GRAY + "  " + operation.parameters());
+            }
+            for (String sql : operation.sql()) {
+                sender.sendMessage(ChatColor.DARK_GRAY + "  " + sql);
+            }
+        }
+
+        return true;
+    }
+
     private boolean handleStats(CommandSender sender, String[] args) {
         if (!sender.hasPermission("lowkeycraft.stats.view")) {
             sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
@@ -79,104 +148,146 @@ public class StatsCommand implements CommandExecutor {
             targetPlayer = args[0];
         }
 
-        // Get player data from database
-        Map<String, Object> playerData = plugin.getDatabaseManager().getPlayerData(targetPlayer);
+        if (isOnCooldown(sender)) return true;
+
+        // Online players are usually cached, which answers without touching the database
+        Player online = plugin.getServer().getPlayerExact(targetPlayer);
+        if (online != null) {
+            PlayerProfile cached = plugin.getDatabaseManager().getCachedPlayerData(online.getUniqueId());
+            if (cached != null) {
+                displayPlayerStats(sender, withLiveData(cached));
+                return true;
+            }
+        }
+
+        // Otherwise read it off the main thread and come back to send the messages
+        plugin.getDatabaseManager().getPlayerDataAsync(targetPlayer).whenComplete((profile, error) -> {
+            if (!plugin.isEnabled()) return;
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (sender instanceof Player player && !player.isOnline()) return;
+
+                if (error != null) {
+                    sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
+                        ChatColor.RED + "Could not load stats right now, please try again later.");
+                    plugin.getLogger().severe("Error loading stats for " + targetPlayer + ": " + error.getMessage());
+                    return;
+                }
+
+                if (profile == null) {
+                    sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
+                        plugin.getConfigManager().getPlayerNotFoundMessage());
+                    return;
+                }
+
+                displayPlayerStats(sender, withLiveData(profile));
+            });
+        });
+        return true;
+    }
+
+    // Limits how often a player can start a lookup; the console and admins are not limited
+    private boolean isOnCooldown(CommandSender sender) {
+        int cooldown = plugin.getConfigManager().getStatsCooldown();
+        if (cooldown <= 0 || !(sender instanceof Player player) || sender.hasPermission("lowkeycraft.stats.admin")) {
+            return false;
+        }
 
-        if (playerData == null) {
+        long now = System.currentTimeMillis();
+        long cooldownMillis = cooldown * 1000L;
+        Long last = lastLookups.get(player.getUniqueId());
+        if (last != null && now - last < cooldownMillis) {
+            long seconds = (cooldownMillis - (now - last) + 999) / 1000;
             sender.sendMessage(plugin.getConfigManager().getPrefix() + " " +
-                plugin.getConfigManager().getPlayerNotFoundMessage());
+                plugin.getConfigManager().getCooldownMessage().replace("{seconds}", String.valueOf(seconds)));
             return true;
         }
 
-        // Display stats
-        displayPlayerStats(sender, playerData);
-        return true;
+        // Forget players whose cooldown is over so the map stays small
+        lastLookups.values().removeIf(time -> now - time >= cooldownMillis);
+        lastLookups.put(player.getUniqueId(), now);
+        return false;
     }
 
-    private void displayPlayerStats(CommandSender sender, Map<String, Object> data) {
-        String username = (String) data.get("username");
+    // An online player's live status is read from the player, which is newer than the last live data write
+    private PlayerProfile withLiveData(PlayerProfile profile) {
+        Player target = plugin.getServer().getPlayer(profile.uuid());
+        if (target == null) return profile;
 
+        return profile.withLiveData(LiveDataSnapshot.capture(target), LiveDataChangeTracker.ALL).withOnline(true);
+    }
+
+    private void displayPlayerStats(CommandSender sender, PlayerProfile profile) {
         // Header
         String header = plugin.getConfigManager().getStatsHeaderMessage()
-            .replace("{player}", username);
+            .replace("{player}", profile.username());
         sender.sendMessage(header);
 
         // Basic info
-        boolean isOnline = (Boolean) data.get("is_online");
+        boolean isOnline = profile.online();
         String status = isOnline ? ChatColor.GREEN + "Online" : ChatColor.RED + "Offline";
         sender.sendMessage(ChatColor.GRAY + "Status: " + status);
 
         // First join and last seen
-        long firstJoin = (Long) data.get("first_join");
-        long lastSeen = (Long) data.get("last_seen");
-
         sender.sendMessage(ChatColor.GRAY + "First Join: " + ChatColor.WHITE +
-            dateFormat.format(new Date(firstJoin)));
+            TimeFormat.formatDate(profile.firstJoin()));
 
         if (!isOnline) {
             sender.sendMessage(ChatColor.GRAY + "Last Seen: " + ChatColor.WHITE +
-                dateFormat.format(new Date(lastSeen)));
+                TimeFormat.formatDate(profile.lastSeen()));
         }
 
         // Playtime
-        long playtimeMs = (Long) data.get("playtime");
-        String playtimeFormatted = formatPlaytime(playtimeMs);
-        sender.sendMessage(ChatColor.GRAY + "Playtime: " + ChatColor.GOLD + playtimeFormatted);
+        String playtimeFormatted = formatPlaytime(profile.playtime());
+        sender.sendMessage(ChatColor.GRAY + "Playtime: " + ChatColor.GOLD + playtimeFormatted +
+            formatRank(plugin.getDatabaseManager().getLeaderboards()
+                .getRanking(profile.uuid(), LeaderboardManager.PLAYTIME)));
 
         // Basic statistics
         sender.sendMessage("");
         sender.sendMessage(ChatColor.YELLOW + "=== Statistics ===");
 
-        int blocksBroken = (Integer) data.get("blocks_broken");
-        int blocksPlaced = (Integer) data.get("blocks_placed");
-        int deaths = (Integer) data.get("deaths");
-        int playerKills = (Integer) data.get("player_kills");
-        int mobKills = (Integer) data.get("mob_kills");
-        double distanceTraveled = (Double) data.get("distance_traveled");
-        int itemsCrafted = (Integer) data.get("items_crafted");
-        int foodConsumed = (Integer) data.get("food_consumed");
-
-        sender.sendMessage(ChatColor.GRAY + "Blocks Broken: " + ChatColor.GREEN + formatNumber(blocksBroken));
-        sender.sendMessage(ChatColor.GRAY + "Blocks Placed: " + ChatColor.GREEN + formatNumber(blocksPlaced));
-        sender.sendMessage(ChatColor.GRAY + "Deaths: " + ChatColor.RED + formatNumber(deaths));
-        sender.sendMessage(ChatColor.GRAY + "Player Kills: " + ChatColor.DARK_RED + formatNumber(playerKills));
-        sender.sendMessage(ChatColor.GRAY + "Mob Kills: " + ChatColor.BLUE + formatNumber(mobKills));
+        Map<String, Ranking> rankings = plugin.getDatabaseManager().getLeaderboards()
+            .getRankings(profile.uuid());
+
+        sender.sendMessage(ChatColor.GRAY + "Blocks Broken: " + ChatColor.GREEN +
+            formatNumber((int) profile.stat(Stat.BLOCKS_BROKEN)) + formatRank(rankings.get("blocks_broken")));
+        sender.sendMessage(ChatColor.GRAY + "Blocks Placed: " + ChatColor.GREEN +
+            formatNumber((int) profile.stat(Stat.BLOCKS_PLACED)) + formatRank(rankings.get("blocks_placed")));
+        sender.sendMessage(ChatColor.GRAY + "Deaths: " + ChatColor.RED +
+            formatNumber((int) profile.stat(Stat.DEATHS)) + formatRank(rankings.get("deaths")));
+        sender.sendMessage(ChatColor.GRAY + "Player Kills: " + ChatColor.DARK_RED +
+            formatNumber((int) profile.stat(Stat.PLAYER_KILLS)) + formatRank(rankings.get("player_kills")));
+        sender.sendMessage(ChatColor.GRAY + "Mob Kills: " + ChatColor.BLUE +
+            formatNumber((int) profile.stat(Stat.MOB_KILLS)) + formatRank(rankings.get("mob_kills")));
         sender.sendMessage(ChatColor.GRAY + "Distance Traveled: " + ChatColor.AQUA +
-            decimalFormat.format(distanceTraveled) + " blocks");
-        sender.sendMessage(ChatColor.GRAY + "Items Crafted: " + ChatColor.LIGHT_PURPLE + formatNumber(itemsCrafted));
-        sender.sendMessage(ChatColor.GRAY + "Food Consumed: " + ChatColor.YELLOW + formatNumber(foodConsumed));
+            decimalFormat.format(profile.stat(Stat.DISTANCE_TRAVELED)) + " blocks" +
+            formatRank(rankings.get("distance_traveled")));
+        sender.sendMessage(ChatColor.GRAY + "Items Crafted: " + ChatColor.LIGHT_PURPLE +
+            formatNumber((int) profile.stat(Stat.ITEMS_CRAFTED)) + formatRank(rankings.get("items_crafted")));
+        sender.sendMessage(ChatColor.GRAY + "Food Consumed: " + ChatColor.YELLOW +
+            formatNumber((int) profile.stat(Stat.FOOD_CONSUMED)) + formatRank(rankings.get("food_consumed")));
 
         // Live data (only if player is online)
         if (isOnline) {
             sender.sendMessage("");
             sender.sendMessage(ChatColor.YELLOW + "=== Live Status ===");
 
-            double health = (Double) data.get("health");
-            int foodLevel = (Integer) data.get("food_level");
-            double saturation = (Double) data.get("saturation");
-            int expLevel = (Integer) data.get("experience_level");
-            float expPoints = (Float) data.get("experience_points");
-
             sender.sendMessage(ChatColor.GRAY + "Health: " + ChatColor.RED +
-                decimalFormat.format(health) + "/20.0 ❤");
+                decimalFormat.format(profile.health()) + "/20.0 ❤");
             sender.sendMessage(ChatColor.GRAY + "Food: " + ChatColor.GOLD +
-                foodLevel + "/20 \uD83C\uDF56");
+                profile.foodLevel() + "/20 \uD83C\uDF56");
             sender.sendMessage(ChatColor.GRAY + "Saturation: " + ChatColor.YELLOW +
-                decimalFormat.format(saturation));
+                decimalFormat.format(profile.saturation()));
             sender.sendMessage(ChatColor.GRAY + "Experience: " + ChatColor.GREEN +
-                "Level " + expLevel + " (" + decimalFormat.format(expPoints * 100) + "%)");
+                "Level " + profile.experienceLevel() + " (" + decimalFormat.format(profile.experiencePoints() * 100) + "%)");
 
             // Location
-            double x = (Double) data.get("location_x");
-            double y = (Double) data.get("location_y");
-            double z = (Double) data.get("location_z");
-            String world = (String) data.get("world");
-
             sender.sendMessage(ChatColor.GRAY + "Location: " + ChatColor.AQUA +
-                world + " (" +
-                (int) Math.round(x) + ", " +
-                (int) Math.round(y) + ", " +
-                (int) Math.round(z) + ")");
+                profile.world() + " (" +
+                (int) Math.round(profile.x()) + ", " +
+                (int) Math.round(profile.y()) + ", " +
+                (int) Math.round(profile.z()) + ")");
         }
 
         sender.sendMessage(ChatColor.GRAY + "===============================");
@@ -199,6 +310,17 @@ public class StatsCommand implements CommandExecutor {
         }
     }
 
+    private String formatNanos(long nanos) {
+        return decimalFormat.format(nanos / 1_000_000.0) + " ms";
+    }
+
+    // (#1,234 of 58,000, top 2.1%) - top is the share of players ranked at or above them, never shown as 0%
+    private String formatRank(Ranking ranking) {
+        if (ranking == null || ranking.total() == 0) return "";
+        double top = Math.max(0.1, 100.0 * ranking.rank() / ranking.total());
+        return ChatColor.GRAY + String.format(" (#%,d of %,d, top %.1f%%)", ranking.rank(), ranking.total(), top);
+    }
+
     private String formatNumber(int number) {
         if (number >= 1000000) {
             return decimalFormat.format(number / 1000000.0) + "M";
@@ -0,0 +1,105 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Fixed-size worker pool with a bounded queue for database work.
+// When the queue is full new tasks are rejected with a failed future instead of piling up. Only work that
+// can be rebuilt may be lost that way (live data, lookups); callers keep writes that must land (stats,
+// joins, quits, playtime) in memory, and whichever writer task runs next writes them.
+public class DatabaseExecutor {
+
+    private final String name;
+    private final Logger logger;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    public DatabaseExecutor(String name, int threads, int queueCapacity, Logger logger) {
+        this.name = name;
+        this.logger = logger;
+        this.queueCapacity = queueCapacity;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return rejected(e);
+        }
+    }
+
+    public CompletableFuture<Void> run(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return rejected(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> rejected(RejectedExecutionException e) {
+        long rejected = rejectedTasks.incrementAndGet();
+        logger.warning(name + " queue is full (" + queueCapacity + " tasks), rejected task #" + rejected);
+        return CompletableFuture.failedFuture(e);
+    }
+
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning(name + " did not finish " + executor.getQueue().size() + " queued tasks before shutdown");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Queue statistics
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    public int getWorkerCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public double getSaturation() {
+        return (double) getQueueDepth() / queueCapacity;
+    }
+
+    public boolean isSaturated() {
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+}
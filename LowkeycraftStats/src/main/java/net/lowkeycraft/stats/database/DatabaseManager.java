@@ -1,38 +1,143 @@
 package net.lowkeycraft.stats.database;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.leaderboard.LeaderboardManager;
+import net.lowkeycraft.stats.metrics.LatencyHistogram;
+import net.lowkeycraft.stats.metrics.Metrics;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseManager {
 
+    // Ids bound to one IN (...) list; larger lookups are split
+    private static final int MAX_IN_PARAMETERS = 256;
+
+    private static final List<String> PLAYER_COLUMNS = List.of("uuid", "username", "first_join", "last_seen", "is_online");
+    // Same order as LiveDataChangeTracker.bind with ALL fields
+    private static final List<String> LIVE_DATA_COLUMNS = List.of("health", "food_level", "saturation",
+        "experience_level", "experience_points", "location_x", "location_y", "location_z", "world", "last_updated", "uuid");
+
     private final LowkeycraftStats plugin;
-    private Connection connection;
+    private final Map<DatabaseOperation, LatencyHistogram> timers = new EnumMap<>(DatabaseOperation.class);
+    private final DatabaseProfiler profiler;
+    // Operations are only timed when metrics or the profiler want the numbers
+    private final boolean timing;
+    private final StatAccumulator statAccumulator = new StatAccumulator();
+    private final UsernameIndex usernameIndex = new UsernameIndex();
+    private final StatementCache statements = new StatementCache();
+
+    // Writes use a single connection on a single thread; reads have their own pool and workers.
+    // With MySQL both pools are the same.
+    private SqlDialect dialect;
+    private HikariDataSource writePool;
+    private HikariDataSource readPool;
+    private DatabaseExecutor writeExecutor;
+    private DatabaseExecutor readExecutor;
+    private LiveDataChangeTracker liveDataChanges;
+    private LeaderboardManager leaderboards;
+    private PlayerProfileCache profileCache;
+    private BukkitTask flushTask;
+
+    // Built for the configured dialect
+    private String upsertPlayerSql;
+    private String insertStatsSql;
+    private String ensurePlayerSql;
+    private String upsertLiveDataSql;
+    private String flushStatsSql;
+
+    // Bumped when players join or quit, for ETags of the online list and server stats
+    private final AtomicLong rosterVersion = new AtomicLong();
+
+    // Lookups still running, by lowercase name, so concurrent requests for one player share a read
+    private final Map<String, CompletableFuture<PlayerProfile>> pendingLookups = new ConcurrentHashMap<>();
+
+    // Joins waiting for the writer thread; new joins are added until the batch starts writing
+    private final Object joinLock = new Object();
+    private JoinBatch openJoinBatch;
+    // Batches the writer queue rejected, in join order; written by the next join batch, quit or stat flush
+    private final List<JoinBatch> rejectedJoinBatches = new ArrayList<>();
+
+    // Session writes that must survive a full writer queue: playtime still to add and the time each
+    // player quit. They stay here until a writer task writes them, like buffered stats
+    private final Map<UUID, Long> pendingPlaytime = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> pendingQuits = new ConcurrentHashMap<>();
+
+    // Names of joining players until their join is written and the leaderboards know them. A stat flush
+    // that gets ahead of a join creates the players row under this name
+    private final Map<UUID, String> unwrittenJoinNames = new ConcurrentHashMap<>();
+
+    private record PendingJoin(UUID uuid, String username, LiveDataSnapshot snapshot) {
+    }
+
+    private static final class JoinBatch {
+        private final List<PendingJoin> joins = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
 
     public DatabaseManager(LowkeycraftStats plugin) {
         this.plugin = plugin;
+        Metrics metrics = plugin.getMetrics();
+        for (DatabaseOperation operation : DatabaseOperation.values()) {
+            timers.put(operation, metrics.histogram(Metrics.DATABASE_OPERATION, operation.getName()));
+        }
+        this.profiler = new DatabaseProfiler(plugin.getConfigManager().isProfilerEnabled(),
+            plugin.getConfigManager().getProfilerSlowOperations(), plugin.getLogger(), () -> plugin.getServer().isPrimaryThread());
+        this.timing = metrics.isEnabled() || profiler.isEnabled();
     }
 
     public void initialize() throws SQLException {
         setupConnection();
         createTables();
+        buildStatements();
+
+        leaderboards = new LeaderboardManager(plugin.getConfigManager().getLeaderboardSize());
+        loadPlayerIndexes();
+
+        profileCache = new PlayerProfileCache(plugin.getConfigManager().getProfileCacheSize(),
+            plugin.getConfigManager().getProfileCacheTtl() * 1000L);
+
+        liveDataChanges = new LiveDataChangeTracker(
+            plugin.getConfigManager().getPositionChangeThreshold(),
+            plugin.getConfigManager().getHealthChangeThreshold(),
+            plugin.getConfigManager().getSaturationChangeThreshold(),
+            plugin.getConfigManager().getExperienceChangeThreshold());
+
+        writeExecutor = new DatabaseExecutor("LowkeycraftStats-DB-Writer", 1,
+            plugin.getConfigManager().getDatabaseQueueCapacity(),
+            plugin.getLogger());
+        readExecutor = new DatabaseExecutor("LowkeycraftStats-DB-Reader",
+            plugin.getConfigManager().getDatabaseExecutorThreads(),
+            plugin.getConfigManager().getDatabaseQueueCapacity(),
+            plugin.getLogger());
+
+        startStatFlusher();
     }
 
     private void setupConnection() throws SQLException {
         String dbType = plugin.getConfigManager().getDatabaseType();
 
-        if ("sqlite".equalsIgnoreCase(dbType)) {
+        dialect = SqlDialect.forType(dbType);
+        if (dialect instanceof SQLiteDialect) {
             setupSQLite();
-        } else if ("mysql".equalsIgnoreCase(dbType)) {
+        } else if (dialect instanceof MySQLDialect) {
             setupMySQL();
         } else {
             throw new SQLException("Unsupported database type: " + dbType);
         }
 
-        plugin.getLogger().info("Connected to " + dbType.toUpperCase() + " database successfully!");
+        plugin.getLogger().info("Connected to " + dialect.getName() + " database successfully!");
     }
 
     private void setupSQLite() throws SQLException {
@@ -42,7 +147,25 @@ public class DatabaseManager {
         }
 
         String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
-        connection = DriverManager.getConnection(url);
+        SQLiteProfile profile = SQLiteProfile.fromConfig(plugin.getConfigManager());
+
+        // SQLite allows one writer at a time, so writes share a single connection
+        HikariConfig writeConfig = createPoolConfig("LowkeycraftStats-Writer", 1);
+        writeConfig.setJdbcUrl(url);
+        writeConfig.setDriverClassName("org.sqlite.JDBC");
+        writeConfig.setDataSourceProperties(profile.writerProperties());
+        writePool = new HikariDataSource(writeConfig);
+
+        // In WAL mode readers never wait behind the writer
+        HikariConfig readConfig = createPoolConfig("LowkeycraftStats-Reader", plugin.getConfigManager().getPoolMaxSize());
+        readConfig.setJdbcUrl(url);
+        readConfig.setDriverClassName("org.sqlite.JDBC");
+        readConfig.setDataSourceProperties(profile.readerProperties());
+        readPool = new HikariDataSource(readConfig);
+
+        if (!profile.isWal()) {
+            plugin.getLogger().warning("SQLite is not in WAL mode, reads will block while a write is in progress");
+        }
     }
 
     private void setupMySQL() throws SQLException {
@@ -52,8 +175,21 @@ public class DatabaseManager {
         String username = plugin.getConfigManager().getMySQLUsername();
         String password = plugin.getConfigManager().getMySQLPassword();
 
-        String url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&serverTimezone=UTC";
-        connection = DriverManager.getConnection(url, username, password);
+        HikariConfig config = createPoolConfig("LowkeycraftStats-Pool", plugin.getConfigManager().getPoolMaxSize());
+        config.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&serverTimezone=UTC" +
+            "&rewriteBatchedStatements=true");
+        config.setUsername(username);
+        config.setPassword(password);
+        writePool = new HikariDataSource(config);
+        readPool = writePool;
+    }
+
+    private HikariConfig createPoolConfig(String name, int maxSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setMaximumPoolSize(maxSize);
+        config.setConnectionTimeout(plugin.getConfigManager().getPoolConnectionTimeout());
+        return config;
     }
 
     private void createTables() throws SQLException {
@@ -105,195 +241,701 @@ public class DatabaseManager {
             )
         """;
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = writePool.getConnection();
+             Statement stmt = connection.createStatement()) {
             stmt.execute(playersTable);
             stmt.execute(statsTable);
             stmt.execute(liveDataTable);
+
+            // Keyset pagination over the full player list, one (column, uuid) index per PlayerSort. The stat
+            // indexes make each stat flush update an index entry per changed column
+            createIndex(connection, "idx_players_username", "players", "username, uuid");
+            createIndex(connection, "idx_players_last_seen", "players", "last_seen, uuid");
+            createIndex(connection, "idx_players_playtime", "players", "playtime, uuid");
+            for (Stat stat : Stat.values()) {
+                createIndex(connection, "idx_player_stats_" + stat.getColumn(), "player_stats", stat.getColumn() + ", uuid");
+            }
         }
 
         plugin.getLogger().info("Database tables created successfully!");
     }
 
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so check the metadata first
+    private void createIndex(Connection connection, String name, String table, String columns) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(null, null, table, false, false)) {
+            while (rs.next()) {
+                if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return;
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private void buildStatements() {
+        upsertPlayerSql = dialect.upsert("players", "uuid", PLAYER_COLUMNS,
+            List.of("username", "last_seen", "is_online"), List.of());
+        insertStatsSql = dialect.insertIgnore("player_stats", List.of("uuid"));
+        upsertLiveDataSql = dialect.upsert("player_live_data", "uuid", LIVE_DATA_COLUMNS,
+            LIVE_DATA_COLUMNS.subList(0, LIVE_DATA_COLUMNS.size() - 1), List.of());
+
+        // Stat deltas are upserted rather than updated: the batch becomes one multi-row INSERT on MySQL,
+        // and increments for a player whose stats row is missing are not lost. player_stats references
+        // players, so the flush first inserts the players row of a joined player whose join is not written
+        // yet, under the name they joined with; otherwise MySQL rejects the whole batch and it is retried
+        // forever. Deltas of players with no known name stay buffered until their join is written
+        ensurePlayerSql = dialect.insertIgnore("players", List.of("uuid", "username", "first_join", "last_seen"));
+        List<String> statColumns = new ArrayList<>();
+        for (Stat stat : Stat.values()) {
+            statColumns.add(stat.getColumn());
+        }
+        List<String> flushColumns = new ArrayList<>();
+        flushColumns.add("uuid");
+        flushColumns.addAll(statColumns);
+        flushStatsSql = dialect.upsert("player_stats", "uuid", flushColumns, List.of(), statColumns);
+    }
+
+    // Loads the leaderboards and the username index in one pass over all players.
+    // Ordered by last_seen so the latest holder of a reused name wins.
+    private void loadPlayerIndexes() throws SQLException {
+        String sql = """
+            SELECT p.uuid, p.username, p.playtime, ps.* FROM players p
+            LEFT JOIN player_stats ps ON p.uuid = ps.uuid
+            ORDER BY p.last_seen
+        """;
+
+        int players = 0;
+        try (Connection connection = readPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            double[] stats = new double[Stat.values().length];
+            while (rs.next()) {
+                for (Stat stat : Stat.values()) {
+                    stats[stat.ordinal()] = rs.getDouble(stat.getColumn());
+                }
+                UUID uuid = UUID.fromString(rs.getString("uuid"));
+                leaderboards.seed(uuid, rs.getString("username"), stats, rs.getLong("playtime"));
+                usernameIndex.put(uuid, rs.getString("username"));
+                players++;
+            }
+        }
+
+        plugin.getLogger().info("Loaded leaderboards for " + players + " players");
+    }
+
     // Player operations
     public void addPlayer(Player player) {
-        String sql = "INSERT OR REPLACE INTO players (uuid, username, first_join, last_seen, is_online) VALUES (?, ?, ?, ?, ?)";
+        pendingQuits.remove(player.getUniqueId());
+        unwrittenJoinNames.put(player.getUniqueId(), player.getName());
+        PendingJoin join = new PendingJoin(player.getUniqueId(), player.getName(), LiveDataSnapshot.capture(player));
+        writeJoins(Collections.singletonList(join));
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            long currentTime = System.currentTimeMillis();
-            stmt.setString(1, player.getUniqueId().toString());
-            stmt.setString(2, player.getName());
+    // Captures the player on the calling thread and queues the write. Joins that arrive while a
+    // write is still queued share it, so a mass reconnect becomes a few large transactions.
+    public CompletableFuture<Void> addPlayerAsync(Player player) {
+        // A quit not written yet is moot, the join sets is_online and last_seen itself
+        pendingQuits.remove(player.getUniqueId());
+        unwrittenJoinNames.put(player.getUniqueId(), player.getName());
+        PendingJoin join = new PendingJoin(player.getUniqueId(), player.getName(), LiveDataSnapshot.capture(player));
 
-            // Only set first_join if player is new
-            if (!playerExists(player.getUniqueId().toString())) {
-                stmt.setLong(3, currentTime);
+        JoinBatch batch;
+        synchronized (joinLock) {
+            if (openJoinBatch != null) {
+                openJoinBatch.joins.add(join);
+                return openJoinBatch.done;
+            }
+            batch = new JoinBatch();
+            batch.joins.add(join);
+            openJoinBatch = batch;
+        }
+
+        // Submitted outside the lock: a rejected task completes its future on this thread right away
+        writeExecutor.run(() -> writeJoinBatch(batch)).whenComplete((result, error) -> {
+            if (error == null) return;
+            closeJoinBatch(batch);
+            if (error instanceof RejectedExecutionException) {
+                // The writer queue is full; the joins are kept and written by the next writer task that runs
+                synchronized (joinLock) {
+                    rejectedJoinBatches.add(batch);
+                }
             } else {
-                stmt.setLong(3, getFirstJoin(player.getUniqueId().toString()));
+                batch.done.completeExceptionally(error);
+            }
+        });
+        return batch.done;
+    }
+
+    private void writeJoinBatch(JoinBatch batch) {
+        writePendingSessions();
+        writeJoinBatchNow(batch);
+    }
+
+    private void writeJoinBatchNow(JoinBatch batch) {
+        List<PendingJoin> joins = closeJoinBatch(batch);
+        if (writeJoins(joins)) {
+            batch.done.complete(null);
+        } else {
+            batch.done.completeExceptionally(new SQLException("Failed to add " + joins.size() + " players"));
+        }
+    }
+
+    // Writer thread. Earlier joins go first, so a player who joined, quit and rejoined ends up online
+    private void writeRejectedJoins() {
+        List<JoinBatch> batches;
+        synchronized (joinLock) {
+            if (rejectedJoinBatches.isEmpty()) return;
+            batches = new ArrayList<>(rejectedJoinBatches);
+            rejectedJoinBatches.clear();
+        }
+        for (JoinBatch batch : batches) {
+            writeJoinBatchNow(batch);
+        }
+    }
+
+    // Stops further joins from being added to the batch and returns what it holds
+    private List<PendingJoin> closeJoinBatch(JoinBatch batch) {
+        synchronized (joinLock) {
+            if (openJoinBatch == batch) {
+                openJoinBatch = null;
             }
+            return new ArrayList<>(batch.joins);
+        }
+    }
 
-            stmt.setLong(4, currentTime);
-            stmt.setBoolean(5, true);
-            stmt.executeUpdate();
+    // Upserts the players, their stats rows and live data in one transaction.
+    // Existing rows keep first_join, playtime and stats.
+    private boolean writeJoins(List<PendingJoin> joins) {
+        long start = startTimer();
+        try {
+            if (joins.isEmpty()) return true;
 
-            // Initialize stats and live data
-            initializePlayerStats(player.getUniqueId().toString());
-            updateLiveData(player);
+            long currentTime = System.currentTimeMillis();
+            try (Connection connection = writePool.getConnection()) {
+                connection.setAutoCommit(false);
 
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error adding player: " + e.getMessage());
+                try {
+                    PreparedStatement players = prepare(connection, upsertPlayerSql);
+                    PreparedStatement stats = prepare(connection, insertStatsSql);
+                    PreparedStatement liveData = prepare(connection, upsertLiveDataSql);
+                    for (PendingJoin join : joins) {
+                        players.setString(1, join.uuid().toString());
+                        players.setString(2, join.username());
+                        players.setLong(3, currentTime);
+                        players.setLong(4, currentTime);
+                        players.setBoolean(5, true);
+                        players.addBatch();
+
+                        stats.setString(1, join.uuid().toString());
+                        stats.addBatch();
+
+                        LiveDataChangeTracker.bind(liveData, join.snapshot(), LiveDataChangeTracker.ALL);
+                        liveData.addBatch();
+                    }
+
+                    players.executeBatch();
+                    stats.executeBatch();
+                    liveData.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error adding players: " + e.getMessage());
+                return false;
+            }
+
+            for (PendingJoin join : joins) {
+                liveDataChanges.markPersisted(join.snapshot(), LiveDataChangeTracker.ALL);
+                leaderboards.updateUsername(join.uuid(), join.username());
+                unwrittenJoinNames.remove(join.uuid(), join.username());
+                usernameIndex.put(join.uuid(), join.username());
+                profileCache.invalidate(join.uuid());
+            }
+            rosterVersion.incrementAndGet();
+
+            if (joins.size() > 1 && plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Added " + joins.size() + " joining players in one transaction");
+            }
+            return true;
+        } finally {
+            record(DatabaseOperation.ADD_PLAYERS, start, "players", joins.size());
         }
     }
 
     public void removePlayer(Player player) {
-        String sql = "UPDATE players SET is_online = FALSE, last_seen = ? WHERE uuid = ?";
+        removePlayer(player.getUniqueId(), System.currentTimeMillis());
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setLong(1, System.currentTimeMillis());
-            stmt.setString(2, player.getUniqueId().toString());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error removing player: " + e.getMessage());
+    // The quit is recorded before the write is queued, so a full writer queue only delays it
+    public CompletableFuture<Void> removePlayerAsync(Player player) {
+        UUID uuid = player.getUniqueId();
+
+        // Later joins must not share a batch queued before this quit, or a rejoin would be marked offline
+        synchronized (joinLock) {
+            openJoinBatch = null;
         }
+        pendingQuits.put(uuid, System.currentTimeMillis());
+        return writeExecutor.run(this::writePendingSessions);
     }
 
-    private boolean playerExists(String uuid) {
-        String sql = "SELECT uuid FROM players WHERE uuid = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
-        } catch (SQLException e) {
-            return false;
+    // Writer thread. Rejected joins, then quits and playtime recorded since the last writer task
+    private synchronized void writePendingSessions() {
+        writeRejectedJoins();
+
+        for (UUID uuid : pendingQuits.keySet()) {
+            Long quitTime = pendingQuits.remove(uuid);
+            if (quitTime != null) {
+                removePlayer(uuid, quitTime);
+            }
+        }
+
+        for (UUID uuid : pendingPlaytime.keySet()) {
+            Long added = pendingPlaytime.remove(uuid);
+            if (added != null && !writePlaytime(uuid, added)) {
+                pendingPlaytime.merge(uuid, added, Long::sum);
+            }
         }
     }
 
-    private long getFirstJoin(String uuid) {
-        String sql = "SELECT first_join FROM players WHERE uuid = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getLong("first_join");
+    private void removePlayer(UUID uuid, long quitTime) {
+        long start = startTimer();
+        try {
+            liveDataChanges.forget(uuid);
+
+            String sql = "UPDATE players SET is_online = FALSE, last_seen = ? WHERE uuid = ?";
+
+            try (Connection connection = writePool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sql);
+                stmt.setLong(1, quitTime);
+                stmt.setString(2, uuid.toString());
+                stmt.executeUpdate();
+                profileCache.invalidate(uuid);
+                rosterVersion.incrementAndGet();
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error removing player: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error getting first join: " + e.getMessage());
+        } finally {
+            record(DatabaseOperation.REMOVE_PLAYER, start, "uuid", uuid);
+        }
+    }
+
+    // Statistics operations
+    public void incrementStat(UUID uuid, Stat stat, int amount) {
+        // Buffered in memory and written by the stat flusher
+        statAccumulator.add(uuid, stat, amount);
+        leaderboards.increment(uuid, stat, amount);
+    }
+
+    // Column names are only ever resolved to a Stat, never put into SQL
+    @Deprecated
+    public void incrementStat(String uuid, String statName, int amount) {
+        incrementStat(UUID.fromString(uuid), statName, amount);
+    }
+
+    @Deprecated
+    public void incrementStat(UUID uuid, String statName, int amount) {
+        Stat stat = Stat.fromColumn(statName);
+        if (stat == null) {
+            plugin.getLogger().severe("Error incrementing stat " + statName + ": unknown stat");
+            return;
         }
-        return System.currentTimeMillis();
+        incrementStat(uuid, stat, amount);
     }
 
-    private void initializePlayerStats(String uuid) {
-        String sql = "INSERT OR IGNORE INTO player_stats (uuid) VALUES (?)";
-        String liveSql = "INSERT OR IGNORE INTO player_live_data (uuid) VALUES (?)";
+    // Adds traveled distance at full precision, buffered like any other stat increment
+    public void addDistanceTraveled(UUID uuid, double distance) {
+        statAccumulator.add(uuid, Stat.DISTANCE_TRAVELED, distance);
+        leaderboards.increment(uuid, Stat.DISTANCE_TRAVELED, distance);
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             PreparedStatement liveStmt = connection.prepareStatement(liveSql)) {
+    public CompletableFuture<Void> flushPendingStatsAsync() {
+        return writeExecutor.run(this::flushPendingStats);
+    }
 
-            stmt.setString(1, uuid);
-            stmt.executeUpdate();
+    public CompletableFuture<Void> flushPendingStatsAsync(UUID uuid) {
+        return writeExecutor.run(() -> flushPendingStats(uuid));
+    }
 
-            liveStmt.setString(1, uuid);
-            liveStmt.executeUpdate();
+    private void startStatFlusher() {
+        long interval = 20L * plugin.getConfigManager().getStatFlushInterval();
 
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error initializing player stats: " + e.getMessage());
+        flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushPendingStatsAsync();
+            }
+        }.runTaskTimerAsynchronously(plugin, interval, interval);
+    }
+
+    // Writes all buffered stat increments in a single transaction
+    public synchronized void flushPendingStats() {
+        // Rejected joins first, so their players have rows before their stats are written
+        writePendingSessions();
+
+        Map<UUID, double[]> drained = statAccumulator.drainAll();
+        // Without a known name there is no players row to write them under yet; they wait for the join
+        drained.entrySet().removeIf(entry -> {
+            if (getKnownUsername(entry.getKey()) != null) return false;
+            statAccumulator.restore(entry.getKey(), entry.getValue());
+            return true;
+        });
+        if (drained.isEmpty()) return;
+
+        if (writeStatDeltas(drained)) {
+            if (plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Flushed pending stats for " + drained.size() + " players");
+            }
+        } else {
+            drained.forEach(statAccumulator::restore);
         }
     }
 
-    // Statistics operations
-    public void incrementStat(String uuid, String statName, int amount) {
-        String sql = "UPDATE player_stats SET " + statName + " = " + statName + " + ? WHERE uuid = ?";
+    // Writes the buffered stat increments of a single player, used when they leave
+    public synchronized void flushPendingStats(UUID uuid) {
+        if (getKnownUsername(uuid) == null) return;
+        double[] deltas = statAccumulator.drain(uuid);
+        if (deltas == null) return;
+
+        if (!writeStatDeltas(Collections.singletonMap(uuid, deltas))) {
+            statAccumulator.restore(uuid, deltas);
+        }
+    }
+
+    // The name the player's row has or will have, null for players this server has never seen join
+    private String getKnownUsername(UUID uuid) {
+        String username = leaderboards.getUsername(uuid);
+        return username != null ? username : unwrittenJoinNames.get(uuid);
+    }
+
+    private boolean writeStatDeltas(Map<UUID, double[]> deltas) {
+        long start = startTimer();
+        try {
+            profileCache.beginWrite();
+            try (Connection connection = writePool.getConnection()) {
+                if (!writeStatDeltas(connection, deltas)) return false;
+                profileCache.addStats(deltas);
+                return true;
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error flushing pending stats: " + e.getMessage());
+                return false;
+            } finally {
+                profileCache.endWrite();
+            }
+        } finally {
+            record(DatabaseOperation.FLUSH_STATS, start, "players", deltas.size());
+        }
+    }
+
+    private boolean writeStatDeltas(Connection connection, Map<UUID, double[]> deltas) {
+        try {
+            connection.setAutoCommit(false);
+
+            // Players the leaderboards know have a row already. The others joined but their join is not
+            // written yet; INSERT IGNORE leaves the row to the join if it lands first
+            long currentTime = System.currentTimeMillis();
+            PreparedStatement players = null;
+            for (UUID uuid : deltas.keySet()) {
+                if (leaderboards.getUsername(uuid) != null) continue;
+                if (players == null) {
+                    players = prepare(connection, ensurePlayerSql);
+                }
+                players.setString(1, uuid.toString());
+                players.setString(2, getKnownUsername(uuid));
+                players.setLong(3, currentTime);
+                players.setLong(4, currentTime);
+                players.addBatch();
+            }
+            // With rewriteBatchedStatements MySQL reports SUCCESS_NO_INFO rather than a row count, so
+            // anything but a definite 0 may have added a player
+            boolean addedPlayers = false;
+            if (players != null) {
+                for (int count : players.executeBatch()) {
+                    addedPlayers |= count != 0;
+                }
+            }
+
+            PreparedStatement stmt = prepare(connection, flushStatsSql);
+            for (Map.Entry<UUID, double[]> entry : deltas.entrySet()) {
+                double[] values = entry.getValue();
+                stmt.setString(1, entry.getKey().toString());
+                for (Stat stat : Stat.values()) {
+                    if (stat.isFractional()) {
+                        stmt.setDouble(stat.ordinal() + 2, values[stat.ordinal()]);
+                    } else {
+                        stmt.setLong(stat.ordinal() + 2, (long) values[stat.ordinal()]);
+                    }
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, amount);
-            stmt.setString(2, uuid);
-            stmt.executeUpdate();
+            connection.commit();
+            if (addedPlayers) {
+                rosterVersion.incrementAndGet();
+            }
+            return true;
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error incrementing stat " + statName + ": " + e.getMessage());
+            plugin.getLogger().severe("Error flushing pending stats: " + e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                plugin.getLogger().severe("Error rolling back stat flush: " + rollbackError.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error restoring auto-commit: " + e.getMessage());
+            }
         }
     }
 
+    // Summed per player before the write is queued, so a full writer queue or a failed write only
+    // delays it until the next writer task
+    public CompletableFuture<Void> updatePlaytimeAsync(String uuid, long additionalTime) {
+        pendingPlaytime.merge(UUID.fromString(uuid), additionalTime, Long::sum);
+        return writeExecutor.run(this::writePendingSessions);
+    }
+
     public void updatePlaytime(String uuid, long additionalTime) {
-        String sql = "UPDATE players SET playtime = playtime + ? WHERE uuid = ?";
+        writePlaytime(UUID.fromString(uuid), additionalTime);
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setLong(1, additionalTime);
-            stmt.setString(2, uuid);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error updating playtime: " + e.getMessage());
+    private boolean writePlaytime(UUID uuid, long additionalTime) {
+        long start = startTimer();
+        try {
+            String sql = "UPDATE players SET playtime = playtime + ? WHERE uuid = ?";
+
+            profileCache.beginWrite();
+            try (Connection connection = writePool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sql);
+                stmt.setLong(1, additionalTime);
+                stmt.setString(2, uuid.toString());
+                stmt.executeUpdate();
+
+                leaderboards.incrementPlaytime(uuid, additionalTime);
+                profileCache.addPlaytime(uuid, additionalTime);
+                return true;
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error updating playtime: " + e.getMessage());
+                return false;
+            } finally {
+                profileCache.endWrite();
+            }
+        } finally {
+            record(DatabaseOperation.UPDATE_PLAYTIME, start, "uuid", uuid, "added", additionalTime);
         }
     }
 
     // Live data operations
     public void updateLiveData(Player player) {
-        String sql = """
-            UPDATE player_live_data SET
-                health = ?, food_level = ?, saturation = ?, experience_level = ?, experience_points = ?,
-                location_x = ?, location_y = ?, location_z = ?, world = ?, last_updated = ?
-            WHERE uuid = ?
-        """;
+        updateLiveData(LiveDataSnapshot.capture(player));
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setDouble(1, player.getHealth());
-            stmt.setInt(2, player.getFoodLevel());
-            stmt.setFloat(3, player.getSaturation());
-            stmt.setInt(4, player.getLevel());
-            stmt.setFloat(5, player.getExp());
-            stmt.setDouble(6, player.getLocation().getX());
-            stmt.setDouble(7, player.getLocation().getY());
-            stmt.setDouble(8, player.getLocation().getZ());
-            stmt.setString(9, player.getWorld().getName());
-            stmt.setLong(10, System.currentTimeMillis());
-            stmt.setString(11, player.getUniqueId().toString());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error updating live data: " + e.getMessage());
+    public CompletableFuture<Void> updateLiveDataAsync(Player player) {
+        LiveDataSnapshot snapshot = LiveDataSnapshot.capture(player);
+        return writeExecutor.run(() -> updateLiveData(snapshot));
+    }
+
+    public void updateLiveData(LiveDataSnapshot snapshot) {
+        long start = startTimer();
+        try {
+            int fields = liveDataChanges.changedFields(snapshot);
+            if (fields == 0) {
+                liveDataChanges.markSkipped();
+                return;
+            }
+
+            try (Connection connection = writePool.getConnection()) {
+                writeLiveData(connection, snapshot, fields);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error updating live data: " + e.getMessage());
+            }
+        } finally {
+            record(DatabaseOperation.UPDATE_LIVE_DATA, start, "uuid", snapshot.uuid());
         }
     }
 
+    // Writes a whole live data cycle as one JDBC batch in a single transaction.
+    // Rows that did not change beyond the thresholds are skipped, the rest only update changed columns.
+    public CompletableFuture<Void> updateLiveDataBatchAsync(List<LiveDataSnapshot> snapshots) {
+        return writeExecutor.run(() -> updateLiveDataBatch(snapshots));
+    }
+
+    public void updateLiveDataBatch(List<LiveDataSnapshot> snapshots) {
+        long start = startTimer();
+        try {
+            Map<Integer, List<LiveDataSnapshot>> byFields = new HashMap<>();
+            int skipped = 0;
+
+            for (LiveDataSnapshot snapshot : snapshots) {
+                int fields = liveDataChanges.changedFields(snapshot);
+                if (fields == 0) {
+                    liveDataChanges.markSkipped();
+                    skipped++;
+                } else {
+                    byFields.computeIfAbsent(fields, key -> new ArrayList<>()).add(snapshot);
+                }
+            }
+
+            if (!byFields.isEmpty()) {
+                try (Connection connection = writePool.getConnection()) {
+                    connection.setAutoCommit(false);
+
+                    try {
+                        for (Map.Entry<Integer, List<LiveDataSnapshot>> group : byFields.entrySet()) {
+                            int fields = group.getKey();
+                            PreparedStatement stmt = prepare(connection, LiveDataChangeTracker.getUpdateSql(fields));
+                            for (LiveDataSnapshot snapshot : group.getValue()) {
+                                LiveDataChangeTracker.bind(stmt, snapshot, fields);
+                                stmt.addBatch();
+                            }
+                            stmt.executeBatch();
+                        }
+                        connection.commit();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+
+                    byFields.forEach((fields, group) -> group.forEach(snapshot -> {
+                        liveDataChanges.markPersisted(snapshot, fields);
+                        profileCache.patchLiveData(snapshot, fields);
+                    }));
+                } catch (SQLException e) {
+                    plugin.getLogger().severe("Error updating live data batch: " + e.getMessage());
+                    return;
+                }
+            }
+
+            if (plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Live data cycle: " + (snapshots.size() - skipped) + " rows written, " +
+                    skipped + " unchanged");
+            }
+        } finally {
+            record(DatabaseOperation.UPDATE_LIVE_DATA_BATCH, start, "rows", snapshots.size());
+        }
+    }
+
+    private void writeLiveData(Connection connection, LiveDataSnapshot snapshot, int fields) throws SQLException {
+        PreparedStatement stmt = prepare(connection, LiveDataChangeTracker.getUpdateSql(fields));
+        LiveDataChangeTracker.bind(stmt, snapshot, fields);
+        stmt.executeUpdate();
+        liveDataChanges.markPersisted(snapshot, fields);
+        profileCache.patchLiveData(snapshot, fields);
+    }
+
     // Data retrieval
-    public Map<String, Object> getPlayerData(String username) {
+    public CompletableFuture<PlayerProfile> getPlayerDataAsync(String username) {
+        String key = username.toLowerCase(Locale.ROOT);
+        CompletableFuture<PlayerProfile> lookup = new CompletableFuture<>();
+        CompletableFuture<PlayerProfile> pending = pendingLookups.putIfAbsent(key, lookup);
+        if (pending != null) return pending;
+
+        readExecutor.supply(() -> getPlayerData(username)).whenComplete((profile, error) -> {
+            pendingLookups.remove(key, lookup);
+            if (error != null) {
+                lookup.completeExceptionally(error);
+            } else {
+                lookup.complete(profile);
+            }
+        });
+        return lookup;
+    }
+
+    // Cached profile with pending stats, or null when it would take a database read. Safe on the main thread
+    public PlayerProfile getCachedPlayerData(UUID uuid) {
+        if (!profileCache.isEnabled()) return null;
+
+        PlayerProfile profile = profileCache.get(uuid);
+        return profile == null ? null : addPendingStats(profile);
+    }
+
+    public PlayerProfile getPlayerData(String username) {
+        long start = startTimer();
+        try {
+            UUID uuid = usernameIndex.get(username);
+            if (uuid == null) {
+                // Every name that joined this server is indexed; only a shared database can know more
+                if (!dialect.isShared()) return null;
+                uuid = findPlayerId(username);
+                if (uuid == null) return null;
+            }
+
+            PlayerProfile profile = profileCache.isEnabled() ? profileCache.get(uuid) : null;
+
+            if (profile == null) {
+                long version = profileCache.getVersion();
+                profile = loadPlayerData(uuid);
+                if (profile == null) return null;
+                profileCache.put(profile, version);
+            }
+
+            return addPendingStats(profile);
+        } finally {
+            record(DatabaseOperation.GET_PLAYER_DATA, start, "username", username);
+        }
+    }
+
+    // Stats, including increments that have not been flushed yet
+    private PlayerProfile addPendingStats(PlayerProfile profile) {
+        double[] pending = null;
+        for (Stat stat : Stat.values()) {
+            double amount = statAccumulator.getPending(profile.uuid(), stat);
+            if (amount == 0) continue;
+
+            if (pending == null) {
+                pending = new double[Stat.values().length];
+            }
+            pending[stat.ordinal()] = amount;
+        }
+        return pending == null ? profile : profile.withStats(pending);
+    }
+
+    // Fallback for names joined on other servers sharing the database.
+    // Uses idx_players_username, which MySQL's default collation already makes case-insensitive.
+    private UUID findPlayerId(String username) {
+        String sql = "SELECT uuid, username FROM players WHERE username = ? ORDER BY last_seen DESC LIMIT 1";
+
+        try (Connection connection = readPool.getConnection()) {
+            PreparedStatement stmt = prepare(connection, sql);
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    UUID uuid = UUID.fromString(rs.getString("uuid"));
+                    usernameIndex.put(uuid, rs.getString("username"));
+                    return uuid;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error looking up player: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    private PlayerProfile loadPlayerData(UUID uuid) {
         String sql = """
             SELECT p.*, ps.*, pld.* FROM players p
             LEFT JOIN player_stats ps ON p.uuid = ps.uuid
             LEFT JOIN player_live_data pld ON p.uuid = pld.uuid
-            WHERE p.username = ?
+            WHERE p.uuid = ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Map<String, Object> data = new HashMap<>();
-                data.put("username", rs.getString("username"));
-                data.put("uuid", rs.getString("uuid"));
-                data.put("first_join", rs.getLong("first_join"));
-                data.put("last_seen", rs.getLong("last_seen"));
-                data.put("playtime", rs.getLong("playtime"));
-                data.put("is_online", rs.getBoolean("is_online"));
-
-                // Stats
-                data.put("blocks_broken", rs.getInt("blocks_broken"));
-                data.put("blocks_placed", rs.getInt("blocks_placed"));
-                data.put("deaths", rs.getInt("deaths"));
-                data.put("player_kills", rs.getInt("player_kills"));
-                data.put("mob_kills", rs.getInt("mob_kills"));
-                data.put("distance_traveled", rs.getDouble("distance_traveled"));
-                data.put("items_crafted", rs.getInt("items_crafted"));
-                data.put("food_consumed", rs.getInt("food_consumed"));
-
-                // Live data
-                data.put("health", rs.getDouble("health"));
-                data.put("food_level", rs.getInt("food_level"));
-                data.put("saturation", rs.getDouble("saturation"));
-                data.put("experience_level", rs.getInt("experience_level"));
-                data.put("experience_points", rs.getFloat("experience_points"));
-                data.put("location_x", rs.getDouble("location_x"));
-                data.put("location_y", rs.getDouble("location_y"));
-                data.put("location_z", rs.getDouble("location_z"));
-                data.put("world", rs.getString("world"));
-
-                return data;
+        try (Connection connection = readPool.getConnection()) {
+            PreparedStatement stmt = prepare(connection, sql);
+            stmt.setString(1, uuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return PlayerProfile.read(rs);
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().severe("Error getting player data: " + e.getMessage());
@@ -302,59 +944,371 @@ public class DatabaseManager {
         return null;
     }
 
-    public List<Map<String, Object>> getOnlinePlayers() {
-        String sql = "SELECT username, uuid FROM players WHERE is_online = TRUE";
-        List<Map<String, Object>> players = new ArrayList<>();
+    public CompletableFuture<Map<String, PlayerProfile>> getPlayersDataAsync(List<String> namesOrIds) {
+        return readExecutor.supply(() -> getPlayersData(namesOrIds));
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Map<String, Object> player = new HashMap<>();
-                player.put("username", rs.getString("username"));
-                player.put("uuid", rs.getString("uuid"));
-                players.add(player);
+    // Profiles for a list of names or uuids, keyed by the requested string; unknown players are left out.
+    // Cached profiles are used as they are and the rest are read with one IN query
+    public Map<String, PlayerProfile> getPlayersData(List<String> namesOrIds) {
+        long start = startTimer();
+        try {
+            Map<String, UUID> ids = new LinkedHashMap<>();
+            List<String> unknownNames = new ArrayList<>();
+            for (String nameOrId : namesOrIds) {
+                UUID uuid = parseUuid(nameOrId);
+                if (uuid == null) {
+                    uuid = usernameIndex.get(nameOrId);
+                }
+                if (uuid != null) {
+                    ids.put(nameOrId, uuid);
+                } else if (dialect.isShared()) {
+                    unknownNames.add(nameOrId);
+                }
+            }
+            if (!unknownNames.isEmpty()) {
+                Map<String, UUID> found = findPlayerIds(unknownNames);
+                for (String name : unknownNames) {
+                    UUID uuid = found.get(name.toLowerCase(Locale.ROOT));
+                    if (uuid != null) {
+                        ids.put(name, uuid);
+                    }
+                }
+            }
+
+            Map<UUID, PlayerProfile> profiles = new HashMap<>();
+            Set<UUID> missing = new LinkedHashSet<>();
+            for (UUID uuid : ids.values()) {
+                PlayerProfile cached = profileCache.isEnabled() ? profileCache.get(uuid) : null;
+                if (cached != null) {
+                    profiles.put(uuid, cached);
+                } else {
+                    missing.add(uuid);
+                }
+            }
+            if (!missing.isEmpty()) {
+                long version = profileCache.getVersion();
+                for (PlayerProfile profile : loadPlayersData(new ArrayList<>(missing))) {
+                    profileCache.put(profile, version);
+                    profiles.put(profile.uuid(), profile);
+                }
+            }
+
+            Map<String, PlayerProfile> result = new LinkedHashMap<>();
+            for (Map.Entry<String, UUID> entry : ids.entrySet()) {
+                PlayerProfile profile = profiles.get(entry.getValue());
+                if (profile != null) {
+                    result.put(entry.getKey(), addPendingStats(profile));
+                }
+            }
+            return result;
+        } finally {
+            record(DatabaseOperation.GET_PLAYERS_BATCH, start, "players", namesOrIds.size());
+        }
+    }
+
+    // Same join as loadPlayerData, for many players at once
+    private List<PlayerProfile> loadPlayersData(List<UUID> uuids) {
+        List<PlayerProfile> profiles = new ArrayList<>(uuids.size());
+
+        try (Connection connection = readPool.getConnection()) {
+            for (int from = 0; from < uuids.size(); from += MAX_IN_PARAMETERS) {
+                List<UUID> chunk = uuids.subList(from, Math.min(uuids.size(), from + MAX_IN_PARAMETERS));
+                int size = paddedSize(chunk.size());
+                String sql = "SELECT p.*, ps.*, pld.* FROM players p " +
+                    "LEFT JOIN player_stats ps ON p.uuid = ps.uuid " +
+                    "LEFT JOIN player_live_data pld ON p.uuid = pld.uuid " +
+                    "WHERE p.uuid IN (" + placeholders(size) + ")";
+
+                PreparedStatement stmt = prepare(connection, sql);
+                for (int i = 0; i < size; i++) {
+                    stmt.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)).toString());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        profiles.add(PlayerProfile.read(rs));
+                    }
+                }
             }
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error getting online players: " + e.getMessage());
+            plugin.getLogger().severe("Error getting player data: " + e.getMessage());
         }
 
-        return players;
+        return profiles;
     }
 
-    public int getTotalPlayers() {
-        String sql = "SELECT COUNT(*) as count FROM players";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count");
+    // Batch form of findPlayerId, keyed by lowercase name
+    private Map<String, UUID> findPlayerIds(List<String> usernames) {
+        Map<String, UUID> found = new HashMap<>();
+
+        try (Connection connection = readPool.getConnection()) {
+            for (int from = 0; from < usernames.size(); from += MAX_IN_PARAMETERS) {
+                List<String> chunk = usernames.subList(from, Math.min(usernames.size(), from + MAX_IN_PARAMETERS));
+                int size = paddedSize(chunk.size());
+                String sql = "SELECT uuid, username FROM players WHERE username IN (" + placeholders(size) + ") " +
+                    "ORDER BY last_seen DESC";
+
+                PreparedStatement stmt = prepare(connection, sql);
+                for (int i = 0; i < size; i++) {
+                    stmt.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = UUID.fromString(rs.getString("uuid"));
+                        String username = rs.getString("username");
+                        // Most recently seen first, so the current holder of a name wins
+                        if (found.putIfAbsent(username.toLowerCase(Locale.ROOT), uuid) == null) {
+                            usernameIndex.put(uuid, username);
+                        }
+                    }
+                }
             }
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error getting total players: " + e.getMessage());
+            plugin.getLogger().severe("Error looking up players: " + e.getMessage());
         }
-        return 0;
+
+        return found;
     }
 
-    public int getOnlinePlayerCount() {
-        String sql = "SELECT COUNT(*) as count FROM players WHERE is_online = TRUE";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count");
+    // IN lists are padded to a power of two by repeating the last id, so the statement cache holds a few
+    // statements instead of one per list length
+    private static int paddedSize(int count) {
+        int size = 8;
+        while (size < count) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static String placeholders(int count) {
+        return "?" + ",?".repeat(count - 1);
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public CompletableFuture<List<OnlinePlayer>> getOnlinePlayersAsync() {
+        return readExecutor.supply(this::getOnlinePlayers);
+    }
+
+    public List<OnlinePlayer> getOnlinePlayers() {
+        long start = startTimer();
+        try {
+            String sql = "SELECT username, uuid FROM players WHERE is_online = TRUE";
+            List<OnlinePlayer> players = new ArrayList<>();
+
+            try (Connection connection = readPool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sql);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        players.add(new OnlinePlayer(rs.getString("uuid"), rs.getString("username")));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error getting online players: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error getting online player count: " + e.getMessage());
+
+            return players;
+        } finally {
+            record(DatabaseOperation.GET_ONLINE_PLAYERS, start);
         }
-        return 0;
     }
 
-    public void close() {
+    // Streams one keyset page of all players to the handler without holding the page in memory. The rows
+    // are written to the client while the result set is open, so a read-pool connection is held until the
+    // whole page is written: a slow client keeps it for as long as it takes to read at most
+    // web-server.players-max-page-size rows
+    public void streamPlayers(PlayerSort sort, boolean descending, PlayerCursor after, int limit,
+                              PlayerListHandler handler) throws SQLException, IOException {
+        long start = startTimer();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                plugin.getLogger().info("Database connection closed");
+            try (Connection connection = readPool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sort.buildQuery(descending, after != null));
+                int index = 1;
+                if (after != null) {
+                    index = sort.bindCursor(stmt, index, after);
+                }
+                // One extra row tells us whether there is a next page
+                stmt.setInt(index, limit + 1);
+
+                dialect.streamResults(stmt);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    handler.begin();
+
+                    int rows = 0;
+                    String lastUuid = null;
+                    String lastKey = null;
+                    while (rs.next()) {
+                        if (rows == limit) {
+                            handler.end(new PlayerCursor(sort.getName(), descending, lastKey, lastUuid));
+                            return;
+                        }
+
+                        UUID uuid = UUID.fromString(rs.getString("uuid"));
+                        double[] stats = new double[Stat.values().length];
+                        for (Stat stat : Stat.values()) {
+                            stats[stat.ordinal()] = rs.getDouble(stat.getColumn()) + statAccumulator.getPending(uuid, stat);
+                        }
+
+                        lastUuid = rs.getString("uuid");
+                        lastKey = sort.readKey(rs);
+                        handler.row(new PlayerListRow(lastUuid, rs.getString("username"), rs.getLong("first_join"),
+                            rs.getLong("last_seen"), rs.getLong("playtime"), rs.getBoolean("is_online"), stats));
+                        rows++;
+                    }
+                    handler.end(null);
+                }
             }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error closing database connection: " + e.getMessage());
+        } finally {
+            record(DatabaseOperation.LIST_PLAYERS, start, "sort", sort.getName(), "descending", descending,
+                "limit", limit, "after", after);
+        }
+    }
+
+    public CompletableFuture<Integer> getTotalPlayersAsync() {
+        return readExecutor.supply(this::getTotalPlayers);
+    }
+
+    public int getTotalPlayers() {
+        long start = startTimer();
+        try {
+            String sql = "SELECT COUNT(*) as count FROM players";
+            try (Connection connection = readPool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sql);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("count");
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error getting total players: " + e.getMessage());
+            }
+            return 0;
+        } finally {
+            record(DatabaseOperation.COUNT_PLAYERS, start);
+        }
+    }
+
+    public CompletableFuture<Integer> getOnlinePlayerCountAsync() {
+        return readExecutor.supply(this::getOnlinePlayerCount);
+    }
+
+    public int getOnlinePlayerCount() {
+        long start = startTimer();
+        try {
+            String sql = "SELECT COUNT(*) as count FROM players WHERE is_online = TRUE";
+            try (Connection connection = readPool.getConnection()) {
+                PreparedStatement stmt = prepare(connection, sql);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("count");
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error getting online player count: " + e.getMessage());
+            }
+            return 0;
+        } finally {
+            record(DatabaseOperation.COUNT_ONLINE_PLAYERS, start);
+        }
+    }
+
+    private long startTimer() {
+        return timing ? System.nanoTime() : 0L;
+    }
+
+    // Parameters are name, value pairs, only formatted when the profiler keeps the operation
+    private void record(DatabaseOperation operation, long start, Object... parameters) {
+        if (!timing) return;
+
+        long nanos = System.nanoTime() - start;
+        timers.get(operation).record(nanos);
+        profiler.record(operation, nanos, parameters);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        profiler.noteSql(sql);
+        return statements.prepare(connection, sql);
+    }
+
+    public DatabaseExecutor getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    public DatabaseExecutor getReadExecutor() {
+        return readExecutor;
+    }
+
+    public LeaderboardManager getLeaderboards() {
+        return leaderboards;
+    }
+
+    public StatementCache getStatements() {
+        return statements;
+    }
+
+    public UsernameIndex getUsernameIndex() {
+        return usernameIndex;
+    }
+
+    // Changes whenever something in the player's profile changes: a write, or a stat increment that
+    // has not been flushed yet. Cheap enough to check before loading the profile
+    public long getPlayerVersion(UUID uuid) {
+        long version = profileCache.getPlayerVersion(uuid);
+        for (Stat stat : Stat.values()) {
+            version = 31 * version + Double.doubleToLongBits(statAccumulator.getPending(uuid, stat));
+        }
+        return version;
+    }
+
+    public long getRosterVersion() {
+        return rosterVersion.get();
+    }
+
+    public PlayerProfileCache getProfileCache() {
+        return profileCache;
+    }
+
+    public DatabaseProfiler getProfiler() {
+        return profiler;
+    }
+
+    public LiveDataChangeTracker getLiveDataChanges() {
+        return liveDataChanges;
+    }
+
+    public void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+
+        // Let queued work finish before the pools go away
+        if (readExecutor != null) {
+            readExecutor.shutdown(plugin.getConfigManager().getDatabaseShutdownTimeout());
+        }
+        if (writeExecutor != null) {
+            writeExecutor.shutdown(plugin.getConfigManager().getDatabaseShutdownTimeout());
+        }
+
+        if (writePool == null) return;
+
+        // Write whatever is still buffered
+        flushPendingStats();
+        statements.close();
+
+        if (readPool != writePool && !readPool.isClosed()) {
+            readPool.close();
+        }
+        if (!writePool.isClosed()) {
+            writePool.close();
+            plugin.getLogger().info("Database connection pool closed");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package net.lowkeycraft.stats.database;
+
+// DatabaseManager operations that go to the database, as named in metrics
+public enum DatabaseOperation {
+    ADD_PLAYERS("add_players"),
+    REMOVE_PLAYER("remove_player"),
+    FLUSH_STATS("flush_stats"),
+    UPDATE_PLAYTIME("update_playtime"),
+    UPDATE_LIVE_DATA("update_live_data"),
+    UPDATE_LIVE_DATA_BATCH("update_live_data_batch"),
+    GET_PLAYER_DATA("get_player_data"),
+    GET_PLAYERS_BATCH("get_players_batch"),
+    GET_ONLINE_PLAYERS("get_online_players"),
+    LIST_PLAYERS("list_players"),
+    COUNT_PLAYERS("count_players"),
+    COUNT_ONLINE_PLAYERS("count_online_players");
+
+    private final String name;
+
+    DatabaseOperation(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
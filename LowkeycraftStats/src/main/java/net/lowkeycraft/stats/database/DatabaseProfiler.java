@@ -0,0 +1,156 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Debug aid for slow ticks. Flags DatabaseManager operations that run on the server thread, logging
+// the stack trace once per call site, and keeps the slowest operations with their SQL and parameters.
+// When disabled every method returns after one check.
+public class DatabaseProfiler {
+
+    private static final int MAX_STATEMENTS = 8;
+    private static final int MAX_CALL_SITES = 100;
+
+    public record SlowOperation(String operation, long nanos, long timestamp, String thread,
+                                boolean mainThread, List<String> sql, String parameters) {
+    }
+
+    public record MainThreadCall(String operation, String callSite, long count, long maxNanos, long lastSeen) {
+    }
+
+    private final boolean enabled;
+    private final int capacity;
+    private final Logger logger;
+    private final BooleanSupplier isPrimaryThread;
+
+    // SQL prepared by the operation running on this thread
+    private final ThreadLocal<List<String>> statements = ThreadLocal.withInitial(ArrayList::new);
+
+    // Min-heap on duration: the head is the fastest of the kept operations and the first to go
+    private final PriorityQueue<SlowOperation> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowOperation::nanos));
+    private final Map<String, MainThreadCall> mainThreadCalls = new LinkedHashMap<>();
+
+    public DatabaseProfiler(boolean enabled, int capacity, Logger logger, BooleanSupplier isPrimaryThread) {
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.logger = logger;
+        this.isPrimaryThread = isPrimaryThread;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void noteSql(String sql) {
+        if (!enabled) return;
+
+        List<String> sqls = statements.get();
+        if (sqls.size() < MAX_STATEMENTS && !sqls.contains(sql)) {
+            sqls.add(sql);
+        }
+    }
+
+    public void record(DatabaseOperation operation, long nanos, Object[] parameters) {
+        if (!enabled) return;
+
+        List<String> sqls = statements.get();
+        List<String> sql = sqls.isEmpty() ? List.of() : List.copyOf(sqls);
+        sqls.clear();
+
+        boolean mainThread = isPrimaryThread.getAsBoolean();
+        if (mainThread) {
+            recordMainThreadCall(operation, nanos);
+        }
+
+        synchronized (slowest) {
+            if (slowest.size() < capacity || nanos > slowest.peek().nanos()) {
+                slowest.add(new SlowOperation(operation.getName(), nanos, System.currentTimeMillis(),
+                    Thread.currentThread().getName(), mainThread, sql, format(parameters)));
+                if (slowest.size() > capacity) {
+                    slowest.poll();
+                }
+            }
+        }
+    }
+
+    private void recordMainThreadCall(DatabaseOperation operation, long nanos) {
+        Throwable trace = new Throwable("Database call on the server thread");
+        String callSite = findCallSite(trace.getStackTrace());
+        String key = operation.getName() + " " + callSite;
+
+        boolean first;
+        synchronized (mainThreadCalls) {
+            MainThreadCall previous = mainThreadCalls.get(key);
+            first = previous == null;
+            if (first && mainThreadCalls.size() >= MAX_CALL_SITES) return;
+
+            long count = first ? 1 : previous.count() + 1;
+            long maxNanos = first ? nanos : Math.max(previous.maxNanos(), nanos);
+            mainThreadCalls.put(key, new MainThreadCall(operation.getName(), callSite, count, maxNanos,
+                System.currentTimeMillis()));
+        }
+
+        // Only the first call from each place is logged, the rest are counted
+        if (first) {
+            logger.log(Level.WARNING, "Database operation " + operation.getName() + " ran on the server thread for " +
+                String.format("%.2f", nanos / 1_000_000.0) + " ms (called from " + callSite + ")", trace);
+        }
+    }
+
+    // The first frame outside the database package is the code that should not have made the call
+    private static String findCallSite(StackTraceElement[] frames) {
+        String databasePackage = DatabaseProfiler.class.getPackageName() + ".";
+        for (StackTraceElement frame : frames) {
+            if (!frame.getClassName().startsWith(databasePackage)) {
+                return frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    // name, value pairs as name=value
+    private static String format(Object[] parameters) {
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            if (formatted.length() > 0) formatted.append(", ");
+            formatted.append(parameters[i]).append('=').append(parameters[i + 1]);
+        }
+        return formatted.length() > 200 ? formatted.substring(0, 200) + "..." : formatted.toString();
+    }
+
+    // Slowest first
+    public List<SlowOperation> getSlowest() {
+        List<SlowOperation> operations;
+        synchronized (slowest) {
+            operations = new ArrayList<>(slowest);
+        }
+        operations.sort(Comparator.comparingLong(SlowOperation::nanos).reversed());
+        return operations;
+    }
+
+    // Most frequent first
+    public List<MainThreadCall> getMainThreadCalls() {
+        List<MainThreadCall> calls;
+        synchronized (mainThreadCalls) {
+            calls = new ArrayList<>(mainThreadCalls.values());
+        }
+        calls.sort(Comparator.comparingLong(MainThreadCall::count).reversed());
+        return calls;
+    }
+
+    public void reset() {
+        synchronized (slowest) {
+            slowest.clear();
+        }
+        synchronized (mainThreadCalls) {
+            mainThreadCalls.clear();
+        }
+    }
+}
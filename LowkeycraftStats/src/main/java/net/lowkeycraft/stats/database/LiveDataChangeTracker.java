@@ -0,0 +1,144 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers the last live data written for each player so unchanged rows and columns can be skipped.
+// Changes are tracked per column group; each combination of groups has its own UPDATE statement.
+public class LiveDataChangeTracker {
+
+    public static final int HEALTH = 1;
+    public static final int FOOD_LEVEL = 1 << 1;
+    public static final int SATURATION = 1 << 2;
+    public static final int EXPERIENCE = 1 << 3;
+    public static final int LOCATION = 1 << 4;
+    public static final int WORLD = 1 << 5;
+    public static final int ALL = (1 << 6) - 1;
+
+    private static final String[] UPDATE_SQL = new String[ALL + 1];
+
+    static {
+        for (int fields = 1; fields <= ALL; fields++) {
+            UPDATE_SQL[fields] = buildUpdateSql(fields);
+        }
+    }
+
+    private final Map<UUID, LiveDataSnapshot> persisted = new ConcurrentHashMap<>();
+    private final LongAdder writtenRows = new LongAdder();
+    private final LongAdder skippedRows = new LongAdder();
+
+    private final double positionThresholdSquared;
+    private final double healthThreshold;
+    private final double saturationThreshold;
+    private final double experienceThreshold;
+
+    public LiveDataChangeTracker(double positionThreshold, double healthThreshold,
+                                 double saturationThreshold, double experienceThreshold) {
+        this.positionThresholdSquared = positionThreshold * positionThreshold;
+        this.healthThreshold = healthThreshold;
+        this.saturationThreshold = saturationThreshold;
+        this.experienceThreshold = experienceThreshold;
+    }
+
+    // Column groups that moved beyond their threshold since the last write, 0 if the row can be skipped
+    public int changedFields(LiveDataSnapshot snapshot) {
+        LiveDataSnapshot last = persisted.get(snapshot.uuid());
+        if (last == null) return ALL;
+
+        int fields = 0;
+        if (Math.abs(snapshot.health() - last.health()) > healthThreshold) fields |= HEALTH;
+        if (snapshot.foodLevel() != last.foodLevel()) fields |= FOOD_LEVEL;
+        if (Math.abs(snapshot.saturation() - last.saturation()) > saturationThreshold) fields |= SATURATION;
+        if (snapshot.experienceLevel() != last.experienceLevel()
+            || Math.abs(snapshot.experiencePoints() - last.experiencePoints()) > experienceThreshold) fields |= EXPERIENCE;
+
+        if (!snapshot.world().equals(last.world())) {
+            fields |= WORLD | LOCATION;
+        } else {
+            double dx = snapshot.x() - last.x();
+            double dy = snapshot.y() - last.y();
+            double dz = snapshot.z() - last.z();
+            if (dx * dx + dy * dy + dz * dz > positionThresholdSquared) fields |= LOCATION;
+        }
+
+        return fields;
+    }
+
+    public static String getUpdateSql(int fields) {
+        return UPDATE_SQL[fields];
+    }
+
+    // Binds the columns of the given groups in the same order as getUpdateSql
+    public static void bind(PreparedStatement stmt, LiveDataSnapshot snapshot, int fields) throws SQLException {
+        int index = 1;
+        if ((fields & HEALTH) != 0) stmt.setDouble(index++, snapshot.health());
+        if ((fields & FOOD_LEVEL) != 0) stmt.setInt(index++, snapshot.foodLevel());
+        if ((fields & SATURATION) != 0) stmt.setFloat(index++, snapshot.saturation());
+        if ((fields & EXPERIENCE) != 0) {
+            stmt.setInt(index++, snapshot.experienceLevel());
+            stmt.setFloat(index++, snapshot.experiencePoints());
+        }
+        if ((fields & LOCATION) != 0) {
+            stmt.setDouble(index++, snapshot.x());
+            stmt.setDouble(index++, snapshot.y());
+            stmt.setDouble(index++, snapshot.z());
+        }
+        if ((fields & WORLD) != 0) stmt.setString(index++, snapshot.world());
+        stmt.setLong(index++, snapshot.timestamp());
+        stmt.setString(index, snapshot.uuid().toString());
+    }
+
+    // Records what is now in the database: written groups from the snapshot, the rest from the previous write
+    public void markPersisted(LiveDataSnapshot snapshot, int fields) {
+        LiveDataSnapshot last = persisted.get(snapshot.uuid());
+        if (last == null || fields == ALL) {
+            persisted.put(snapshot.uuid(), snapshot);
+        } else {
+            persisted.put(snapshot.uuid(), new LiveDataSnapshot(
+                snapshot.uuid(),
+                (fields & HEALTH) != 0 ? snapshot.health() : last.health(),
+                (fields & FOOD_LEVEL) != 0 ? snapshot.foodLevel() : last.foodLevel(),
+                (fields & SATURATION) != 0 ? snapshot.saturation() : last.saturation(),
+                (fields & EXPERIENCE) != 0 ? snapshot.experienceLevel() : last.experienceLevel(),
+                (fields & EXPERIENCE) != 0 ? snapshot.experiencePoints() : last.experiencePoints(),
+                (fields & LOCATION) != 0 ? snapshot.x() : last.x(),
+                (fields & LOCATION) != 0 ? snapshot.y() : last.y(),
+                (fields & LOCATION) != 0 ? snapshot.z() : last.z(),
+                (fields & WORLD) != 0 ? snapshot.world() : last.world(),
+                snapshot.timestamp()
+            ));
+        }
+        writtenRows.increment();
+    }
+
+    public void markSkipped() {
+        skippedRows.increment();
+    }
+
+    public void forget(UUID uuid) {
+        persisted.remove(uuid);
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.sum();
+    }
+
+    public long getSkippedRows() {
+        return skippedRows.sum();
+    }
+
+    private static String buildUpdateSql(int fields) {
+        StringBuilder sql = new StringBuilder("UPDATE player_live_data SET ");
+        if ((fields & HEALTH) != 0) sql.append("health = ?, ");
+        if ((fields & FOOD_LEVEL) != 0) sql.append("food_level = ?, ");
+        if ((fields & SATURATION) != 0) sql.append("saturation = ?, ");
+        if ((fields & EXPERIENCE) != 0) sql.append("experience_level = ?, experience_points = ?, ");
+        if ((fields & LOCATION) != 0) sql.append("location_x = ?, location_y = ?, location_z = ?, ");
+        if ((fields & WORLD) != 0) sql.append("world = ?, ");
+        return sql.append("last_updated = ? WHERE uuid = ?").toString();
+    }
+}
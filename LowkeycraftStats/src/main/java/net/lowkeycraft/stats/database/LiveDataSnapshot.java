@@ -0,0 +1,29 @@
+package net.lowkeycraft.stats.database;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+// Immutable copy of a player's live state, taken on the main thread so it can be written from any thread
+public record LiveDataSnapshot(UUID uuid, double health, int foodLevel, float saturation, int experienceLevel,
+                               float experiencePoints, double x, double y, double z, String world, long timestamp) {
+
+    public static LiveDataSnapshot capture(Player player) {
+        Location location = player.getLocation();
+
+        return new LiveDataSnapshot(
+            player.getUniqueId(),
+            player.getHealth(),
+            player.getFoodLevel(),
+            player.getSaturation(),
+            player.getLevel(),
+            player.getExp(),
+            location.getX(),
+            location.getY(),
+            location.getZ(),
+            player.getWorld().getName(),
+            System.currentTimeMillis()
+        );
+    }
+}
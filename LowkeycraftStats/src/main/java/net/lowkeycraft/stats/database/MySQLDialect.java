@@ -0,0 +1,52 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// MySQL and MariaDB upserts: INSERT ... ON DUPLICATE KEY UPDATE, where VALUES(col) is the value that failed to insert.
+// VALUES() is deprecated in MySQL 8.0.20+ in favour of row aliases, but MariaDB only understands VALUES().
+// With rewriteBatchedStatements=true Connector/J sends a batch of these as one multi-row INSERT.
+public class MySQLDialect implements SqlDialect {
+
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    @Override
+    public String upsert(String table, String key, List<String> columns, List<String> replaced, List<String> added) {
+        List<String> updates = new ArrayList<>();
+        for (String column : replaced) {
+            updates.add(column + " = VALUES(" + column + ")");
+        }
+        for (String column : added) {
+            updates.add(column + " = " + column + " + VALUES(" + column + ")");
+        }
+        // MySQL has no DO NOTHING; assigning the key to itself leaves the row untouched
+        if (updates.isEmpty()) {
+            updates.add(key + " = " + key);
+        }
+
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+            SqlDialect.placeholders(columns.size()) + ") ON DUPLICATE KEY UPDATE " + String.join(", ", updates);
+    }
+
+    @Override
+    public String insertIgnore(String table, List<String> columns) {
+        return "INSERT IGNORE INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+            SqlDialect.placeholders(columns.size()) + ")";
+    }
+
+    @Override
+    public void streamResults(PreparedStatement stmt) throws SQLException {
+        // Connector/J buffers the whole result set unless the fetch size is Integer.MIN_VALUE
+        stmt.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,5 @@
+package net.lowkeycraft.stats.database;
+
+// One entry of /api/players/online
+public record OnlinePlayer(String uuid, String username) {
+}
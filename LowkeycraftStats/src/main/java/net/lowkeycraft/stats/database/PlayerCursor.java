@@ -0,0 +1,29 @@
+package net.lowkeycraft.stats.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque position in a player listing: the last row's sort value and uuid
+public record PlayerCursor(String sort, boolean descending, String value, String uuid) {
+
+    public String encode() {
+        String raw = sort + '\n' + (descending ? "desc" : "asc") + '\n' + uuid + '\n' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PlayerCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        // The value goes last since usernames are the only free-form part
+        String[] parts = raw.split("\n", 4);
+        if (parts.length != 4 || !("asc".equals(parts[1]) || "desc".equals(parts[1]))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PlayerCursor(parts[0], "desc".equals(parts[1]), parts[3], parts[2]);
+    }
+}
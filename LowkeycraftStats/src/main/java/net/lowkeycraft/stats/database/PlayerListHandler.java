@@ -0,0 +1,15 @@
+package net.lowkeycraft.stats.database;
+
+import java.io.IOException;
+
+// Receives a player page row by row while the result set is still open
+public interface PlayerListHandler {
+
+    // Called once the query has succeeded, before the first row
+    void begin() throws IOException;
+
+    void row(PlayerListRow row) throws IOException;
+
+    // next is null on the last page
+    void end(PlayerCursor next) throws IOException;
+}
@@ -0,0 +1,6 @@
+package net.lowkeycraft.stats.database;
+
+// One row of the full player listing; stats are indexed by Stat ordinal
+public record PlayerListRow(String uuid, String username, long firstJoin, long lastSeen, long playtime,
+                            boolean online, double[] stats) {
+}
@@ -0,0 +1,90 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+// A player's row with stats and live data, as shown by /api/player and /stats. Stats are indexed by
+// Stat ordinal. Never modified once built; the with methods return an updated copy. The stats array is
+// copied on the way in and out, so profiles shared through PlayerProfileCache can't be changed by a caller
+public record PlayerProfile(UUID uuid, String username, long firstJoin, long lastSeen, long playtime, boolean online,
+                            double[] stats, double health, int foodLevel, double saturation, int experienceLevel,
+                            float experiencePoints, double x, double y, double z, String world) {
+
+    public PlayerProfile {
+        stats = stats.clone();
+    }
+
+    // Reads the current row of the players, player_stats and player_live_data join
+    public static PlayerProfile read(ResultSet rs) throws SQLException {
+        double[] stats = new double[Stat.values().length];
+        for (Stat stat : Stat.values()) {
+            stats[stat.ordinal()] = rs.getDouble(stat.getColumn());
+        }
+
+        return new PlayerProfile(
+            UUID.fromString(rs.getString("uuid")),
+            rs.getString("username"),
+            rs.getLong("first_join"),
+            rs.getLong("last_seen"),
+            rs.getLong("playtime"),
+            rs.getBoolean("is_online"),
+            stats,
+            rs.getDouble("health"),
+            rs.getInt("food_level"),
+            rs.getDouble("saturation"),
+            rs.getInt("experience_level"),
+            rs.getFloat("experience_points"),
+            rs.getDouble("location_x"),
+            rs.getDouble("location_y"),
+            rs.getDouble("location_z"),
+            rs.getString("world")
+        );
+    }
+
+    @Override
+    public double[] stats() {
+        return stats.clone();
+    }
+
+    public double stat(Stat stat) {
+        return stats[stat.ordinal()];
+    }
+
+    // Deltas are indexed by Stat ordinal, like StatAccumulator's
+    public PlayerProfile withStats(double[] deltas) {
+        double[] updated = new double[stats.length];
+        for (int i = 0; i < updated.length; i++) {
+            updated[i] = stats[i] + deltas[i];
+        }
+        return new PlayerProfile(uuid, username, firstJoin, lastSeen, playtime, online, updated, health, foodLevel,
+            saturation, experienceLevel, experiencePoints, x, y, z, world);
+    }
+
+    public PlayerProfile withPlaytime(long playtime) {
+        return new PlayerProfile(uuid, username, firstJoin, lastSeen, playtime, online, stats, health, foodLevel,
+            saturation, experienceLevel, experiencePoints, x, y, z, world);
+    }
+
+    public PlayerProfile withOnline(boolean online) {
+        return new PlayerProfile(uuid, username, firstJoin, lastSeen, playtime, online, stats, health, foodLevel,
+            saturation, experienceLevel, experiencePoints, x, y, z, world);
+    }
+
+    // Takes the LiveDataChangeTracker field groups set in fields from the snapshot
+    public PlayerProfile withLiveData(LiveDataSnapshot snapshot, int fields) {
+        boolean experience = (fields & LiveDataChangeTracker.EXPERIENCE) != 0;
+        boolean location = (fields & LiveDataChangeTracker.LOCATION) != 0;
+
+        return new PlayerProfile(uuid, username, firstJoin, lastSeen, playtime, online, stats,
+            (fields & LiveDataChangeTracker.HEALTH) != 0 ? snapshot.health() : health,
+            (fields & LiveDataChangeTracker.FOOD_LEVEL) != 0 ? snapshot.foodLevel() : foodLevel,
+            (fields & LiveDataChangeTracker.SATURATION) != 0 ? snapshot.saturation() : saturation,
+            experience ? snapshot.experienceLevel() : experienceLevel,
+            experience ? snapshot.experiencePoints() : experiencePoints,
+            location ? snapshot.x() : x,
+            location ? snapshot.y() : y,
+            location ? snapshot.z() : z,
+            (fields & LiveDataChangeTracker.WORLD) != 0 ? snapshot.world() : world);
+    }
+}
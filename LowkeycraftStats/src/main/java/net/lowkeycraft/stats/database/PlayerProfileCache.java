@@ -0,0 +1,147 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Read-through cache of player profiles keyed by uuid; names are resolved through the UsernameIndex.
+// Entries hold the values as stored in the database; pending stat increments are overlaid on read.
+// Write paths replace entries with patched copies, and anything older than the TTL is reloaded.
+public class PlayerProfileCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every write so a row loaded before the write is not cached after it
+    private long version;
+    // Additive patches must not land on a row read after their commit, so nothing is cached meanwhile
+    private int writesInFlight;
+    // Value of version at each player's last write, for ETags; kept whether or not the player is cached
+    private final Map<UUID, Long> playerVersions = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry(PlayerProfile profile, long loadedAt) {
+    }
+
+    public PlayerProfileCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMillis > 0;
+    }
+
+    // Returns the cached profile, or null on a miss
+    public synchronized PlayerProfile get(UUID uuid) {
+        Entry entry = entries.get(uuid);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt() > ttlMillis) {
+            entries.remove(uuid);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.profile();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Caches a freshly loaded profile unless a write landed while it was being read
+    public synchronized void put(PlayerProfile profile, long loadedVersion) {
+        if (!isEnabled() || writesInFlight > 0 || loadedVersion != version) return;
+
+        entries.put(profile.uuid(), new Entry(profile, System.currentTimeMillis()));
+
+        Iterator<UUID> eldest = entries.keySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Brackets writes whose result is patched in with addStats or addPlaytime
+    public synchronized void beginWrite() {
+        writesInFlight++;
+    }
+
+    public synchronized void endWrite() {
+        writesInFlight--;
+        version++;
+    }
+
+    public synchronized long getPlayerVersion(UUID uuid) {
+        return playerVersions.getOrDefault(uuid, 0L);
+    }
+
+    public synchronized void invalidate(UUID uuid) {
+        version++;
+        playerVersions.put(uuid, version);
+        entries.remove(uuid);
+    }
+
+    // Flushed stat increments move from the pending overlay into the cached profile
+    public synchronized void addStats(Map<UUID, double[]> deltas) {
+        version++;
+        for (Map.Entry<UUID, double[]> delta : deltas.entrySet()) {
+            playerVersions.put(delta.getKey(), version);
+            Entry entry = entries.get(delta.getKey());
+            if (entry == null) continue;
+
+            entries.put(delta.getKey(), new Entry(entry.profile().withStats(delta.getValue()), entry.loadedAt()));
+        }
+    }
+
+    public synchronized void addPlaytime(UUID uuid, long additionalTime) {
+        version++;
+        playerVersions.put(uuid, version);
+        Entry entry = entries.get(uuid);
+        if (entry != null) {
+            PlayerProfile profile = entry.profile();
+            entries.put(uuid, new Entry(profile.withPlaytime(profile.playtime() + additionalTime), entry.loadedAt()));
+        }
+    }
+
+    // Applies the column groups that were just written for this snapshot
+    public synchronized void patchLiveData(LiveDataSnapshot snapshot, int fields) {
+        version++;
+        playerVersions.put(snapshot.uuid(), version);
+        Entry entry = entries.get(snapshot.uuid());
+        if (entry == null) return;
+
+        entries.put(snapshot.uuid(), new Entry(entry.profile().withLiveData(snapshot, fields), entry.loadedAt()));
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,120 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+public final class PlayerSort {
+
+    enum Kind { TEXT, INTEGER, REAL }
+
+    private static final Map<String, PlayerSort> SORTS = new LinkedHashMap<>();
+
+    // Every sort key is a bare column with a (column, uuid) index, see DatabaseManager.createTables
+    static {
+        register(new PlayerSort("username", "p", "username", Kind.TEXT, false));
+        register(new PlayerSort("last_seen", "p", "last_seen", Kind.INTEGER, true));
+        register(new PlayerSort("playtime", "p", "playtime", Kind.INTEGER, true));
+        for (Stat stat : Stat.values()) {
+            register(new PlayerSort(stat.getColumn(), "ps", stat.getColumn(),
+                stat.isFractional() ? Kind.REAL : Kind.INTEGER, true));
+        }
+    }
+
+    private final String name;
+    // Alias of the table the sort column is in, p (players) or ps (player_stats)
+    private final String table;
+    private final String column;
+    private final Kind kind;
+    private final boolean descendingByDefault;
+
+    private PlayerSort(String name, String table, String column, Kind kind, boolean descendingByDefault) {
+        this.name = name;
+        this.table = table;
+        this.column = column;
+        this.kind = kind;
+        this.descendingByDefault = descendingByDefault;
+    }
+
+    private static void register(PlayerSort sort) {
+        SORTS.put(sort.name, sort);
+    }
+
+    public static PlayerSort fromName(String name) {
+        return name == null ? null : SORTS.get(name.toLowerCase());
+    }
+
+    public static Set<String> getNames() {
+        return Collections.unmodifiableSet(SORTS.keySet());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDescendingByDefault() {
+        return descendingByDefault;
+    }
+
+    // Keyset page: rows strictly after the cursor in (sort value, uuid) order. The query reads the sort
+    // column's table first and orders by its own (column, uuid), so the index hands rows over in page
+    // order and the LIMIT stops the scan; no page sorts or scans the whole table
+    String buildQuery(boolean descending, boolean afterCursor) {
+        String direction = descending ? "DESC" : "ASC";
+        String comparison = descending ? "<" : ">";
+        String key = table + "." + column;
+        String uuid = table + ".uuid";
+
+        StringBuilder sql = new StringBuilder("SELECT p.uuid, p.username, p.first_join, p.last_seen, p.playtime, p.is_online");
+        for (Stat stat : Stat.values()) {
+            sql.append(", COALESCE(ps.").append(stat.getColumn()).append(", 0) AS ").append(stat.getColumn());
+        }
+        sql.append(", ").append(key).append(" AS sort_key");
+        if (table.equals("ps")) {
+            // Every player gets a stats row when they first join, so the inner join drops nobody
+            sql.append(" FROM player_stats ps JOIN players p ON p.uuid = ps.uuid");
+        } else {
+            sql.append(" FROM players p LEFT JOIN player_stats ps ON p.uuid = ps.uuid");
+        }
+        if (afterCursor) {
+            // Spelled out rather than as a row value: MySQL only range-scans an index for this form.
+            // The first term is the seek, the second drops the rows of the cursor's value up to its uuid
+            sql.append(" WHERE ").append(key).append(' ').append(comparison).append("= ?");
+            sql.append(" AND (").append(key).append(' ').append(comparison).append(" ? OR ")
+                .append(uuid).append(' ').append(comparison).append(" ?)");
+        }
+        sql.append(" ORDER BY ").append(key).append(' ').append(direction).append(", ").append(uuid).append(' ').append(direction);
+        sql.append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    // Binds the cursor for buildQuery(..., true) and returns the next parameter index
+    int bindCursor(PreparedStatement stmt, int index, PlayerCursor cursor) throws SQLException {
+        bindValue(stmt, index++, cursor.value());
+        bindValue(stmt, index++, cursor.value());
+        stmt.setString(index++, cursor.uuid());
+        return index;
+    }
+
+    private void bindValue(PreparedStatement stmt, int index, String value) throws SQLException {
+        try {
+            switch (kind) {
+                case TEXT -> stmt.setString(index, value);
+                case INTEGER -> stmt.setLong(index, Long.parseLong(value));
+                case REAL -> stmt.setDouble(index, Double.parseDouble(value));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String readKey(ResultSet rs) throws SQLException {
+        return switch (kind) {
+            case TEXT -> rs.getString("sort_key");
+            case INTEGER -> Long.toString(rs.getLong("sort_key"));
+            // Double.toString round-trips exactly, unlike the driver's text conversion
+            case REAL -> Double.toString(rs.getDouble("sort_key"));
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+// SQLite 3.24+ upserts: INSERT ... ON CONFLICT DO UPDATE, where excluded.* is the row that failed to insert
+public class SQLiteDialect implements SqlDialect {
+
+    @Override
+    public String getName() {
+        return "SQLite";
+    }
+
+    @Override
+    public String upsert(String table, String key, List<String> columns, List<String> replaced, List<String> added) {
+        List<String> updates = new ArrayList<>();
+        for (String column : replaced) {
+            updates.add(column + " = excluded." + column);
+        }
+        for (String column : added) {
+            updates.add(column + " = " + column + " + excluded." + column);
+        }
+
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+            SqlDialect.placeholders(columns.size()) + ") ON CONFLICT(" + key + ") " +
+            (updates.isEmpty() ? "DO NOTHING" : "DO UPDATE SET " + String.join(", ", updates));
+    }
+
+    @Override
+    public String insertIgnore(String table, List<String> columns) {
+        return "INSERT OR IGNORE INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+            SqlDialect.placeholders(columns.size()) + ")";
+    }
+
+    @Override
+    public void streamResults(PreparedStatement stmt) {
+        // sqlite-jdbc already steps through the result set one row at a time
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
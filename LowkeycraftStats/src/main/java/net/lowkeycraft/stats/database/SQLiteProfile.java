@@ -0,0 +1,71 @@
+package net.lowkeycraft.stats.database;
+
+import net.lowkeycraft.stats.utils.ConfigManager;
+import org.sqlite.SQLiteConfig;
+
+import java.util.Locale;
+import java.util.Properties;
+
+// SQLite pragmas applied to every pooled connection, configured under database.sqlite
+public class SQLiteProfile {
+
+    private final SQLiteConfig.JournalMode journalMode;
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final int busyTimeout;
+    private final SQLiteConfig.TempStore tempStore;
+
+    public SQLiteProfile(String journalMode, String synchronous, int cacheSize, long mmapSize,
+                         int busyTimeout, String tempStore) {
+        this.journalMode = SQLiteConfig.JournalMode.valueOf(journalMode.toUpperCase(Locale.ROOT));
+        this.synchronous = SQLiteConfig.SynchronousMode.valueOf(synchronous.toUpperCase(Locale.ROOT));
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.busyTimeout = busyTimeout;
+        this.tempStore = SQLiteConfig.TempStore.valueOf(tempStore.toUpperCase(Locale.ROOT));
+    }
+
+    public static SQLiteProfile fromConfig(ConfigManager config) {
+        return new SQLiteProfile(
+            config.getSQLiteJournalMode(),
+            config.getSQLiteSynchronous(),
+            config.getSQLiteCacheSize(),
+            config.getSQLiteMmapSize(),
+            config.getSQLiteBusyTimeout(),
+            config.getSQLiteTempStore());
+    }
+
+    // Driver properties for the writer connection
+    public Properties writerProperties() {
+        SQLiteConfig config = baseConfig();
+        config.setJournalMode(journalMode);
+        config.setSynchronous(synchronous);
+        return withMmap(config.toProperties());
+    }
+
+    // Driver properties for read-only connections. The journal mode is left to the writer,
+    // which has already switched the file to it by the time readers open.
+    public Properties readerProperties() {
+        SQLiteConfig config = baseConfig();
+        config.setReadOnly(true);
+        return withMmap(config.toProperties());
+    }
+
+    public boolean isWal() {
+        return journalMode == SQLiteConfig.JournalMode.WAL;
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setCacheSize(cacheSize);
+        config.setBusyTimeout(busyTimeout);
+        config.setTempStore(tempStore);
+        return config;
+    }
+
+    private Properties withMmap(Properties properties) {
+        properties.setProperty("mmap_size", String.valueOf(mmapSize));
+        return properties;
+    }
+}
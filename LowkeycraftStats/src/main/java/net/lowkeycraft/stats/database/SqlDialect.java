@@ -0,0 +1,35 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+// The statements that differ between SQLite and MySQL; everything else DatabaseManager runs is portable
+public interface SqlDialect {
+
+    String getName();
+
+    // INSERT of all columns that, when the key already exists, overwrites the replaced columns
+    // and adds the inserted value onto the added ones. Other columns keep their stored value.
+    String upsert(String table, String key, List<String> columns, List<String> replaced, List<String> added);
+
+    // INSERT that does nothing when the row already exists
+    String insertIgnore(String table, List<String> columns);
+
+    // Makes the driver hand over rows as they are read instead of buffering the whole result
+    void streamResults(PreparedStatement stmt) throws SQLException;
+
+    // Whether other servers may write to the same database, so in-memory indexes can be incomplete
+    boolean isShared();
+
+    static SqlDialect forType(String type) {
+        if ("sqlite".equalsIgnoreCase(type)) return new SQLiteDialect();
+        if ("mysql".equalsIgnoreCase(type)) return new MySQLDialect();
+        return null;
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
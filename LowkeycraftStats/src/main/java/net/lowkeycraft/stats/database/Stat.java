@@ -0,0 +1,50 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum Stat {
+
+    BLOCKS_BROKEN("blocks_broken"),
+    BLOCKS_PLACED("blocks_placed"),
+    DEATHS("deaths"),
+    PLAYER_KILLS("player_kills"),
+    MOB_KILLS("mob_kills"),
+    DISTANCE_TRAVELED("distance_traveled", true),
+    ITEMS_CRAFTED("items_crafted"),
+    FOOD_CONSUMED("food_consumed");
+
+    private static final Map<String, Stat> BY_COLUMN = new HashMap<>();
+
+    static {
+        for (Stat stat : values()) {
+            BY_COLUMN.put(stat.column, stat);
+        }
+    }
+
+    private final String column;
+    private final boolean fractional;
+
+    Stat(String column) {
+        this(column, false);
+    }
+
+    Stat(String column, boolean fractional) {
+        this.column = column;
+        this.fractional = fractional;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    // Fractional stats are stored as DOUBLE columns, the rest are whole counts
+    public boolean isFractional() {
+        return fractional;
+    }
+
+    // Returns null for names that are not columns of player_stats
+    public static Stat fromColumn(String column) {
+        return BY_COLUMN.get(column);
+    }
+}
@@ -0,0 +1,142 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// In-memory counters for stat increments that have not been written to player_stats yet.
+// Event handlers add to it without touching the database; the flusher drains it in batches.
+// Whole-count stats use their slot as a plain long, fractional stats keep the bits of a double.
+public class StatAccumulator {
+
+    private static final Stat[] STATS = Stat.values();
+    private static final int SLOTS = STATS.length;
+
+    private final Map<UUID, AtomicLongArray> pending = new ConcurrentHashMap<>();
+
+    public void add(UUID uuid, Stat stat, long amount) {
+        if (stat.isFractional()) {
+            add(uuid, stat, (double) amount);
+            return;
+        }
+
+        AtomicLongArray counters = counters(uuid);
+        counters.addAndGet(stat.ordinal(), amount);
+        reclaimIfRemoved(uuid, counters, stat);
+    }
+
+    public void add(UUID uuid, Stat stat, double amount) {
+        if (!stat.isFractional()) {
+            add(uuid, stat, (long) amount);
+            return;
+        }
+
+        AtomicLongArray counters = counters(uuid);
+        int slot = stat.ordinal();
+        long current;
+        long updated;
+        do {
+            current = counters.get(slot);
+            updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + amount);
+        } while (!counters.compareAndSet(slot, current, updated));
+        reclaimIfRemoved(uuid, counters, stat);
+    }
+
+    public double getPending(UUID uuid, Stat stat) {
+        AtomicLongArray counters = pending.get(uuid);
+        return counters == null ? 0 : decode(stat, counters.get(stat.ordinal()));
+    }
+
+    // Takes every non-zero counter, leaving the slots at zero so new increments keep accumulating
+    public Map<UUID, double[]> drainAll() {
+        Map<UUID, double[]> drained = new HashMap<>();
+
+        for (Map.Entry<UUID, AtomicLongArray> entry : pending.entrySet()) {
+            double[] deltas = drainCounters(entry.getValue());
+            if (deltas != null) {
+                drained.put(entry.getKey(), deltas);
+            }
+        }
+
+        return drained;
+    }
+
+    // Takes the player's counters and drops them if nothing was added meanwhile, used when they leave.
+    // The slots are emptied while the counters are still mapped, so a concurrent add either lands in
+    // them after that and keeps them mapped, or sees them removed and moves itself to new counters
+    public double[] drain(UUID uuid) {
+        AtomicLongArray counters = pending.get(uuid);
+        if (counters == null) return null;
+
+        double[] deltas = drainCounters(counters);
+        pending.computeIfPresent(uuid, (key, current) -> current == counters && isZero(current) ? null : current);
+        return deltas;
+    }
+
+    // Puts deltas back after a failed flush so they are retried on the next one
+    public void restore(UUID uuid, double[] deltas) {
+        for (Stat stat : STATS) {
+            double amount = deltas[stat.ordinal()];
+            if (amount != 0) {
+                add(uuid, stat, amount);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    private AtomicLongArray counters(UUID uuid) {
+        AtomicLongArray counters = pending.get(uuid);
+        if (counters == null) {
+            counters = pending.computeIfAbsent(uuid, key -> new AtomicLongArray(SLOTS));
+        }
+        return counters;
+    }
+
+    // An add that raced with drain(uuid) may have written to counters that are no longer mapped; whatever
+    // is still in the slot is taken back out and added again. getAndSet hands each amount to one side only
+    private void reclaimIfRemoved(UUID uuid, AtomicLongArray counters, Stat stat) {
+        if (pending.get(uuid) == counters) return;
+
+        long raw = counters.getAndSet(stat.ordinal(), 0);
+        if (raw != 0) {
+            if (stat.isFractional()) {
+                add(uuid, stat, Double.longBitsToDouble(raw));
+            } else {
+                add(uuid, stat, raw);
+            }
+        }
+    }
+
+    private static boolean isZero(AtomicLongArray counters) {
+        for (int i = 0; i < SLOTS; i++) {
+            if (counters.get(i) != 0) return false;
+        }
+        return true;
+    }
+
+    private double[] drainCounters(AtomicLongArray counters) {
+        double[] deltas = null;
+
+        for (Stat stat : STATS) {
+            // A zero long is also the bit pattern of 0.0
+            long raw = counters.getAndSet(stat.ordinal(), 0);
+            if (raw != 0) {
+                if (deltas == null) {
+                    deltas = new double[SLOTS];
+                }
+                deltas[stat.ordinal()] = decode(stat, raw);
+            }
+        }
+
+        return deltas;
+    }
+
+    private static double decode(Stat stat, long raw) {
+        return stat.isFractional() ? Double.longBitsToDouble(raw) : raw;
+    }
+}
@@ -0,0 +1,77 @@
+package net.lowkeycraft.stats.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Prepared statements kept per physical connection, so each SQL string is parsed once per connection.
+// They are prepared on the unwrapped driver connection because the pool closes every statement
+// created through its proxy when the connection is returned. Callers must not close them.
+public class StatementCache {
+
+    private final Map<Connection, Map<String, PreparedStatement>> statements = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Only valid while the caller holds the pooled connection it came from
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        Connection raw = connection.unwrap(Connection.class);
+
+        Map<String, PreparedStatement> cached = statements.get(raw);
+        if (cached == null) {
+            // A connection we have not seen usually means the pool retired another one
+            removeClosedConnections();
+            cached = new HashMap<>();
+            statements.put(raw, cached);
+        }
+
+        // A pooled connection is used by one thread at a time, so its map needs no locking
+        PreparedStatement stmt = cached.get(sql);
+        if (stmt != null && !stmt.isClosed()) {
+            stmt.clearParameters();
+            stmt.clearBatch();
+            hits.increment();
+            return stmt;
+        }
+
+        stmt = raw.prepareStatement(sql);
+        cached.put(sql, stmt);
+        misses.increment();
+        return stmt;
+    }
+
+    private void removeClosedConnections() throws SQLException {
+        Iterator<Connection> connections = statements.keySet().iterator();
+        while (connections.hasNext()) {
+            if (connections.next().isClosed()) {
+                connections.remove();
+            }
+        }
+    }
+
+    public void close() {
+        for (Map<String, PreparedStatement> cached : statements.values()) {
+            for (PreparedStatement stmt : cached.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // The connection is going away anyway
+                }
+            }
+        }
+        statements.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package net.lowkeycraft.stats.database;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Case-insensitive username -> uuid lookup for every player that ever joined.
+// Loaded at startup and updated on join, so a miss means the name is unknown without asking the database.
+public class UsernameIndex {
+
+    private final Map<String, UUID> byName = new ConcurrentHashMap<>();
+    private final Map<UUID, String> byId = new ConcurrentHashMap<>();
+    private final LongAdder misses = new LongAdder();
+
+    public UUID get(String username) {
+        UUID uuid = byName.get(normalize(username));
+        if (uuid == null) {
+            misses.increment();
+        }
+        return uuid;
+    }
+
+    // The most recent holder of a name wins; their old name is dropped after a rename
+    public synchronized void put(UUID uuid, String username) {
+        String name = normalize(username);
+        String previous = byId.put(uuid, name);
+        if (previous != null && !previous.equals(name)) {
+            byName.remove(previous, uuid);
+        }
+
+        UUID previousHolder = byName.put(name, uuid);
+        if (previousHolder != null && !previousHolder.equals(uuid)) {
+            byId.remove(previousHolder, name);
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    public int getSize() {
+        return byName.size();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
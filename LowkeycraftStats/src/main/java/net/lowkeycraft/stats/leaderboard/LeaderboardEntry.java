@@ -0,0 +1,6 @@
+package net.lowkeycraft.stats.leaderboard;
+
+import java.util.UUID;
+
+public record LeaderboardEntry(UUID uuid, double value) {
+}
@@ -0,0 +1,182 @@
+package net.lowkeycraft.stats.leaderboard;
+
+import net.lowkeycraft.stats.database.Stat;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory leaderboards for every player_stats column plus playtime. Seeded from the database
+// at startup and kept current by the write paths, so serving a page or a player's rank never
+// queries the database.
+public class LeaderboardManager {
+
+    public static final String PLAYTIME = "playtime";
+
+    private static final int PLAYTIME_SLOT = Stat.values().length;
+    private static final int SLOTS = PLAYTIME_SLOT + 1;
+
+    private final int capacity;
+    private final Map<String, Integer> slotsByName = new LinkedHashMap<>();
+    private final TopList[] boards = new TopList[SLOTS];
+    private final RankIndex[] rankIndexes = new RankIndex[SLOTS];
+    // Bumped under the board lock whenever a board's entries change
+    private final long[] versions = new long[SLOTS];
+
+    // Current totals of every known player, one slot per board
+    private final Map<UUID, double[]> totals = new ConcurrentHashMap<>();
+    private final Map<UUID, String> usernames = new ConcurrentHashMap<>();
+
+    public LeaderboardManager(int capacity) {
+        this.capacity = capacity;
+
+        for (Stat stat : Stat.values()) {
+            slotsByName.put(stat.getColumn(), stat.ordinal());
+        }
+        slotsByName.put(PLAYTIME, PLAYTIME_SLOT);
+
+        for (int i = 0; i < SLOTS; i++) {
+            boards[i] = new TopList(capacity);
+            rankIndexes[i] = new RankIndex();
+        }
+    }
+
+    // Loads a player's totals as stored in the database
+    public void seed(UUID uuid, String username, double[] stats, long playtime) {
+        usernames.put(uuid, username);
+        for (Stat stat : Stat.values()) {
+            set(uuid, stat.ordinal(), stats[stat.ordinal()]);
+        }
+        set(uuid, PLAYTIME_SLOT, playtime);
+    }
+
+    public void updateUsername(UUID uuid, String username) {
+        String previous = usernames.put(uuid, username);
+        // Names are shown on every board
+        if (!username.equals(previous)) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                synchronized (boards[slot]) {
+                    versions[slot]++;
+                }
+            }
+        }
+    }
+
+    // Changes whenever the board's entries or names change, for ETags
+    public long getVersion(String stat) {
+        Integer slot = slotsByName.get(stat);
+        if (slot == null) return 0;
+
+        synchronized (boards[slot]) {
+            return versions[slot];
+        }
+    }
+
+    public void increment(UUID uuid, Stat stat, double amount) {
+        add(uuid, stat.ordinal(), amount);
+    }
+
+    public void incrementPlaytime(UUID uuid, long amount) {
+        add(uuid, PLAYTIME_SLOT, amount);
+    }
+
+    public boolean isTracked(String stat) {
+        return slotsByName.containsKey(stat);
+    }
+
+    public List<String> getTrackedStats() {
+        return List.copyOf(slotsByName.keySet());
+    }
+
+    public boolean isFractional(String stat) {
+        Stat column = Stat.fromColumn(stat);
+        return column != null && column.isFractional();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // A page of the leaderboard, highest first; empty for unknown stats or offsets past the kept entries
+    public List<LeaderboardEntry> getPage(String stat, int offset, int limit) {
+        Integer slot = slotsByName.get(stat);
+        if (slot == null) return Collections.emptyList();
+        return boards[slot].page(offset, limit);
+    }
+
+    public String getUsername(UUID uuid) {
+        return usernames.get(uuid);
+    }
+
+    // Rank and percentile of a player on one stat, null for unknown players or stats
+    public Ranking getRanking(UUID uuid, String stat) {
+        Integer slot = slotsByName.get(stat);
+        double[] values = totals.get(uuid);
+        if (slot == null || values == null) return null;
+
+        RankIndex index = rankIndexes[slot];
+        synchronized (boards[slot]) {
+            int total = index.getTotal();
+            int above = index.countAbove(values[slot]);
+            double percentile = total == 0 ? 0 : Math.round(10000.0 * (total - above) / total) / 100.0;
+            return new Ranking(above + 1, total, percentile);
+        }
+    }
+
+    // Rankings of a player on every tracked stat, keyed like getTrackedStats
+    public Map<String, Ranking> getRankings(UUID uuid) {
+        Map<String, Ranking> rankings = new LinkedHashMap<>();
+        for (String stat : slotsByName.keySet()) {
+            Ranking ranking = getRanking(uuid, stat);
+            if (ranking != null) {
+                rankings.put(stat, ranking);
+            }
+        }
+        return rankings;
+    }
+
+    private void set(UUID uuid, int slot, double value) {
+        double[] values = totals(uuid);
+        TopList board = boards[slot];
+        synchronized (board) {
+            rankIndexes[slot].move(values[slot], value);
+            values[slot] = value;
+            if (board.offer(uuid, value)) {
+                versions[slot]++;
+            }
+        }
+    }
+
+    private void add(UUID uuid, int slot, double amount) {
+        double[] values = totals(uuid);
+        TopList board = boards[slot];
+        synchronized (board) {
+            double value = values[slot] + amount;
+            rankIndexes[slot].move(values[slot], value);
+            values[slot] = value;
+            if (board.offer(uuid, value)) {
+                versions[slot]++;
+            }
+        }
+    }
+
+    // Never call while holding a board lock, a new player is registered on every board
+    private double[] totals(UUID uuid) {
+        double[] values = totals.get(uuid);
+        if (values != null) return values;
+
+        double[] created = new double[SLOTS];
+        values = totals.putIfAbsent(uuid, created);
+        if (values != null) return values;
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+            synchronized (boards[slot]) {
+                rankIndexes[slot].insert(0);
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,62 @@
+package net.lowkeycraft.stats.leaderboard;
+
+// Counts players per value bucket in a Fenwick tree, answering "how many players are above this value"
+// in O(log n). Values below 2048 get a bucket each; larger values share buckets of 1/1024 relative width,
+// so players closer together than that count as tied.
+class RankIndex {
+
+    private static final int EXACT_BUCKETS = 2048;
+    private static final int SUB_BUCKET_BITS = 10;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = EXACT_BUCKETS + 52 * SUB_BUCKETS;
+
+    private final int[] tree = new int[BUCKETS + 1];
+    private int total;
+
+    void insert(double value) {
+        update(bucket(value), 1);
+        total++;
+    }
+
+    void move(double oldValue, double newValue) {
+        int oldBucket = bucket(oldValue);
+        int newBucket = bucket(newValue);
+        if (oldBucket != newBucket) {
+            update(oldBucket, -1);
+            update(newBucket, 1);
+        }
+    }
+
+    // Players whose value falls in a higher bucket
+    int countAbove(double value) {
+        return total - countUpTo(bucket(value));
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    static int bucket(double value) {
+        long v = value <= 0 ? 0 : (long) value;
+        if (v < EXACT_BUCKETS) return (int) v;
+
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+        int subBucket = (int) (v >>> shift) - SUB_BUCKETS;
+        return EXACT_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private void update(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Players in buckets 0..bucket
+    private int countUpTo(int bucket) {
+        int count = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+}
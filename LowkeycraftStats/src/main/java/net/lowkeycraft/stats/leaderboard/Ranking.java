@@ -0,0 +1,5 @@
+package net.lowkeycraft.stats.leaderboard;
+
+// A player's position on one stat; percentile is the share of players at or below them
+public record Ranking(int rank, int total, double percentile) {
+}
@@ -0,0 +1,58 @@
+package net.lowkeycraft.stats.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+// The highest K values of one stat. Stats only ever grow, so a player outside the list can only
+// enter it by passing the current last place, and the evicted last place can never be needed again.
+class TopList {
+
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+        .comparingDouble(LeaderboardEntry::value).reversed()
+        .thenComparing(LeaderboardEntry::uuid);
+
+    private final int capacity;
+    private final TreeSet<LeaderboardEntry> entries = new TreeSet<>(ORDER);
+    private final Map<UUID, LeaderboardEntry> byPlayer = new HashMap<>();
+
+    TopList(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Called with the player's new total
+    // Returns whether the list changed
+    synchronized boolean offer(UUID uuid, double value) {
+        LeaderboardEntry existing = byPlayer.remove(uuid);
+        if (existing != null) {
+            entries.remove(existing);
+        } else if (entries.size() >= capacity) {
+            if (value <= entries.last().value()) return false;
+            byPlayer.remove(entries.pollLast().uuid());
+        }
+
+        LeaderboardEntry entry = new LeaderboardEntry(uuid, value);
+        entries.add(entry);
+        byPlayer.put(uuid, entry);
+        return true;
+    }
+
+    synchronized List<LeaderboardEntry> page(int offset, int limit) {
+        List<LeaderboardEntry> page = new ArrayList<>(Math.min(limit, entries.size()));
+
+        Iterator<LeaderboardEntry> iterator = entries.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+
+        return page;
+    }
+}
@@ -1,6 +1,11 @@
 package net.lowkeycraft.stats.listeners;
 
 import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.Stat;
+import net.lowkeycraft.stats.metrics.LatencyHistogram;
+import net.lowkeycraft.stats.metrics.Metrics;
+import net.lowkeycraft.stats.tracking.LiveDataCollector;
+import net.lowkeycraft.stats.tracking.MovementTracker;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -20,143 +25,214 @@ public class PlayerListener implements Listener {
 
     private final LowkeycraftStats plugin;
     private final Map<UUID, Long> joinTimes = new HashMap<>();
+    private final MovementTracker movementTracker;
+    private final LiveDataCollector liveDataCollector;
+
+    private final LatencyHistogram joinTimer;
+    private final LatencyHistogram quitTimer;
+    private final LatencyHistogram blockBreakTimer;
+    private final LatencyHistogram blockPlaceTimer;
+    private final LatencyHistogram deathTimer;
+    private final LatencyHistogram entityDeathTimer;
+    private final LatencyHistogram moveTimer;
+    private final LatencyHistogram consumeTimer;
 
     public PlayerListener(LowkeycraftStats plugin) {
         this.plugin = plugin;
-        startLiveDataUpdater();
+        Metrics metrics = plugin.getMetrics();
+        this.joinTimer = metrics.histogram(Metrics.EVENT_HANDLER, "join");
+        this.quitTimer = metrics.histogram(Metrics.EVENT_HANDLER, "quit");
+        this.blockBreakTimer = metrics.histogram(Metrics.EVENT_HANDLER, "block_break");
+        this.blockPlaceTimer = metrics.histogram(Metrics.EVENT_HANDLER, "block_place");
+        this.deathTimer = metrics.histogram(Metrics.EVENT_HANDLER, "player_death");
+        this.entityDeathTimer = metrics.histogram(Metrics.EVENT_HANDLER, "entity_death");
+        this.moveTimer = metrics.histogram(Metrics.EVENT_HANDLER, "move");
+        this.consumeTimer = metrics.histogram(Metrics.EVENT_HANDLER, "item_consume");
+        this.movementTracker = new MovementTracker(plugin.getConfigManager().getMovementSampleTicks());
+        this.liveDataCollector = new LiveDataCollector(plugin);
+        liveDataCollector.start();
+        startMovementFlusher();
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
-        UUID uuid = player.getUniqueId();
+        long start = joinTimer.start();
+        try {
+            Player player = event.getPlayer();
+            UUID uuid = player.getUniqueId();
 
-        // Record join time for playtime calculation
-        joinTimes.put(uuid, System.currentTimeMillis());
+            // Record join time for playtime calculation
+            joinTimes.put(uuid, System.currentTimeMillis());
 
-        // Add player to database
-        plugin.getDatabaseManager().addPlayer(player);
+            // Add player to database
+            plugin.getDatabaseManager().addPlayerAsync(player);
+            plugin.getLiveStream().publishJoin(player);
 
-        if (plugin.getConfigManager().isDebugEnabled()) {
-            plugin.getLogger().info("Player " + player.getName() + " joined - data recorded");
+            if (plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Player " + player.getName() + " joined - data recorded");
+            }
+        } finally {
+            joinTimer.stop(start);
         }
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
-        Player player = event.getPlayer();
-        UUID uuid = player.getUniqueId();
-
-        // Calculate and update playtime
-        if (joinTimes.containsKey(uuid)) {
-            long sessionTime = System.currentTimeMillis() - joinTimes.get(uuid);
-            plugin.getDatabaseManager().updatePlaytime(uuid.toString(), sessionTime);
-            joinTimes.remove(uuid);
-        }
+        long start = quitTimer.start();
+        try {
+            Player player = event.getPlayer();
+            UUID uuid = player.getUniqueId();
+
+            // Calculate and update playtime
+            if (joinTimes.containsKey(uuid)) {
+                long sessionTime = System.currentTimeMillis() - joinTimes.get(uuid);
+                plugin.getDatabaseManager().updatePlaytimeAsync(uuid.toString(), sessionTime);
+                joinTimes.remove(uuid);
+            }
 
-        // Update player as offline
-        plugin.getDatabaseManager().removePlayer(player);
+            // Update player as offline
+            plugin.getDatabaseManager().removePlayerAsync(player);
+            plugin.getLiveStream().publishQuit(player);
 
-        if (plugin.getConfigManager().isDebugEnabled()) {
-            plugin.getLogger().info("Player " + player.getName() + " quit - session data updated");
+            // Write their buffered stats, including distance not yet drained
+            double distance = movementTracker.remove(uuid);
+            if (distance > 0) {
+                plugin.getDatabaseManager().addDistanceTraveled(uuid, distance);
+            }
+            plugin.getDatabaseManager().flushPendingStatsAsync(uuid);
+
+            if (plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Player " + player.getName() + " quit - session data updated");
+            }
+        } finally {
+            quitTimer.stop(start);
         }
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
-        if (!plugin.getConfigManager().areBlocksBrokenTracked()) return;
-
-        Player player = event.getPlayer();
-        plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "blocks_broken", 1);
+        long start = blockBreakTimer.start();
+        try {
+            if (!plugin.getConfigManager().areBlocksBrokenTracked()) return;
+
+            Player player = event.getPlayer();
+            plugin.getDatabaseManager().incrementStat(player.getUniqueId(), Stat.BLOCKS_BROKEN, 1);
+        } finally {
+            blockBreakTimer.stop(start);
+        }
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
-        if (!plugin.getConfigManager().areBlocksPlacedTracked()) return;
-
-        Player player = event.getPlayer();
-        plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "blocks_placed", 1);
+        long start = blockPlaceTimer.start();
+        try {
+            if (!plugin.getConfigManager().areBlocksPlacedTracked()) return;
+
+            Player player = event.getPlayer();
+            plugin.getDatabaseManager().incrementStat(player.getUniqueId(), Stat.BLOCKS_PLACED, 1);
+        } finally {
+            blockPlaceTimer.stop(start);
+        }
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDeath(PlayerDeathEvent event) {
-        if (!plugin.getConfigManager().areDeathsTracked()) return;
+        long start = deathTimer.start();
+        try {
+            if (!plugin.getConfigManager().areDeathsTracked()) return;
 
-        Player player = event.getEntity();
-        plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "deaths", 1);
+            Player player = event.getEntity();
+            plugin.getDatabaseManager().incrementStat(player.getUniqueId(), Stat.DEATHS, 1);
 
-        // Check if it was a PvP kill
-        if (plugin.getConfigManager().arePlayerKillsTracked() && player.getKiller() != null) {
-            Player killer = player.getKiller();
-            plugin.getDatabaseManager().incrementStat(killer.getUniqueId().toString(), "player_kills", 1);
+            // Check if it was a PvP kill
+            if (plugin.getConfigManager().arePlayerKillsTracked() && player.getKiller() != null) {
+                Player killer = player.getKiller();
+                plugin.getDatabaseManager().incrementStat(killer.getUniqueId(), Stat.PLAYER_KILLS, 1);
+            }
+        } finally {
+            deathTimer.stop(start);
         }
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onEntityDeath(EntityDeathEvent event) {
-        if (!plugin.getConfigManager().areMobKillsTracked()) return;
-        if (event.getEntity().getKiller() == null) return;
-        if (!(event.getEntity().getKiller() instanceof Player)) return;
+        long start = entityDeathTimer.start();
+        try {
+            if (!plugin.getConfigManager().areMobKillsTracked()) return;
+            if (event.getEntity().getKiller() == null) return;
+            if (!(event.getEntity().getKiller() instanceof Player)) return;
 
-        Player player = (Player) event.getEntity().getKiller();
+            Player player = (Player) event.getEntity().getKiller();
 
-        // Only count mob kills, not player kills
-        if (!(event.getEntity() instanceof Player)) {
-            plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "mob_kills", 1);
+            // Only count mob kills, not player kills
+            if (!(event.getEntity() instanceof Player)) {
+                plugin.getDatabaseManager().incrementStat(player.getUniqueId(), Stat.MOB_KILLS, 1);
+            }
+        } finally {
+            entityDeathTimer.stop(start);
         }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR)
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (!plugin.getConfigManager().isDistanceTraveledTracked()) return;
-        if (event.getFrom().equals(event.getTo())) return; // No actual movement
+        long start = moveTimer.start();
+        try {
+            if (!plugin.getConfigManager().isDistanceTraveledTracked()) return;
+            if (event.getTo() == null) return;
+
+            // Summed in memory, written by the movement flusher
+            movementTracker.handleMove(event.getPlayer(), event.getFrom(), event.getTo());
+        } finally {
+            moveTimer.stop(start);
+        }
+    }
 
-        Player player = event.getPlayer();
-        double distance = event.getFrom().distance(event.getTo());
+    // Teleports have their own HandlerList, so onPlayerMove never sees them. They are not traveled
+    // distance, the reference point just moves
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        if (event.getTo() == null) return;
+        movementTracker.reset(event.getPlayer(), event.getTo());
+    }
 
-        // Convert to integer (blocks traveled)
-        int blocksDistance = (int) Math.round(distance);
-        if (blocksDistance > 0) {
-            plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "distance_traveled", blocksDistance);
-        }
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        movementTracker.reset(event.getPlayer(), event.getRespawnLocation());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onCraftItem(PlayerItemConsumeEvent event) {
-        if (!plugin.getConfigManager().isFoodConsumedTracked()) return;
-
-        Player player = event.getPlayer();
-        // Check if item is food
-        if (event.getItem().getType().isEdible()) {
-            plugin.getDatabaseManager().incrementStat(player.getUniqueId().toString(), "food_consumed", 1);
+        long start = consumeTimer.start();
+        try {
+            if (!plugin.getConfigManager().isFoodConsumedTracked()) return;
+
+            Player player = event.getPlayer();
+            // Check if item is food
+            if (event.getItem().getType().isEdible()) {
+                plugin.getDatabaseManager().incrementStat(player.getUniqueId(), Stat.FOOD_CONSUMED, 1);
+            }
+        } finally {
+            consumeTimer.stop(start);
         }
     }
 
-    // Live data updater
-    private void startLiveDataUpdater() {
-        int interval = plugin.getConfigManager().getUpdateInterval();
+    // Movement flusher - hands summed distances to the stat buffer
+    private void startMovementFlusher() {
+        long interval = 20L * plugin.getConfigManager().getStatFlushInterval();
 
         new BukkitRunnable() {
             @Override
             public void run() {
-                // Update live data for all online players
-                for (Player player : plugin.getServer().getOnlinePlayers()) {
-                    if (plugin.getConfigManager().isHealthFoodTracked() ||
-                        plugin.getConfigManager().isLocationTracked()) {
-
-                        plugin.getDatabaseManager().updateLiveData(player);
-                    }
-                }
-
-                if (plugin.getConfigManager().isDebugEnabled() && !plugin.getServer().getOnlinePlayers().isEmpty()) {
-                    plugin.getLogger().info("Updated live data for " + plugin.getServer().getOnlinePlayers().size() + " online players");
-                }
+                movementTracker.drain(plugin.getDatabaseManager()::addDistanceTraveled);
             }
-        }.runTaskTimerAsynchronously(plugin, 20L * interval, 20L * interval); // Convert seconds to ticks
+        }.runTaskTimer(plugin, interval, interval);
     }
 
     // Handle server shutdown - update all playtimes
     public void onDisable() {
+        liveDataCollector.stop();
+        movementTracker.drain(plugin.getDatabaseManager()::addDistanceTraveled);
+
         long currentTime = System.currentTimeMillis();
 
         for (Map.Entry<UUID, Long> entry : joinTimes.entrySet()) {
@@ -0,0 +1,65 @@
+package net.lowkeycraft.stats.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Prometheus-style latency histogram on LongAdders, so concurrent records do not contend.
+// A disabled histogram does not even read the clock.
+public final class LatencyHistogram {
+
+    // Upper bounds in seconds, as written in the le label
+    static final String[] BOUNDS = {
+        "0.000005", "0.00001", "0.000025", "0.00005", "0.0001", "0.00025", "0.0005",
+        "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+    };
+    private static final long[] BOUNDS_NANOS = Arrays.stream(BOUNDS)
+        .mapToLong(bound -> Math.round(Double.parseDouble(bound) * 1_000_000_000L))
+        .toArray();
+
+    static final LatencyHistogram DISABLED = new LatencyHistogram(false);
+
+    private final boolean enabled;
+    // One more than the bounds for +Inf; not cumulative until written out
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    LatencyHistogram(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(long start) {
+        if (!enabled) return;
+        record(System.nanoTime() - start);
+    }
+
+    public void record(long nanos) {
+        if (!enabled) return;
+
+        int index = Arrays.binarySearch(BOUNDS_NANOS, nanos);
+        // Not found gives -(insertion point) - 1, the first bound above the value
+        buckets[index >= 0 ? index : -index - 1].increment();
+        sumNanos.add(nanos);
+    }
+
+    void write(PrometheusText text, String name, String labels) {
+        String prefix = labels.isEmpty() ? "{" : "{" + labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            text.sample(name + "_bucket", prefix + "le=\"" + BOUNDS[i] + "\"}", cumulative);
+        }
+        cumulative += buckets[BOUNDS.length].sum();
+        text.sample(name + "_bucket", prefix + "le=\"+Inf\"}", cumulative);
+
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        text.sample(name + "_sum", suffix, sumNanos.sum() / 1e9);
+        text.sample(name + "_count", suffix, cumulative);
+    }
+}
@@ -0,0 +1,61 @@
+package net.lowkeycraft.stats.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Latency histograms for the plugin's hot paths, scraped through /api/metrics.
+// Callers look their histograms up once and keep them; when metrics are disabled they all get
+// the same no-op histogram, so an instrumented call costs one branch.
+public class Metrics {
+
+    public static final String EVENT_HANDLER = "lowkeycraft_event_handler_seconds";
+    public static final String DATABASE_OPERATION = "lowkeycraft_database_operation_seconds";
+    public static final String LIVE_DATA_CYCLE = "lowkeycraft_live_data_cycle_seconds";
+    public static final String HTTP_REQUEST = "lowkeycraft_http_request_seconds";
+
+    private static final Map<String, String[]> FAMILIES = Map.of(
+        EVENT_HANDLER, new String[] {"event", "Time spent in PlayerListener event handlers on the server thread"},
+        DATABASE_OPERATION, new String[] {"operation", "Duration of DatabaseManager operations, including waiting for a connection"},
+        LIVE_DATA_CYCLE, new String[] {"phase", "Live data updater: server thread time per collect tick, and whole cycles until written"},
+        HTTP_REQUEST, new String[] {"route", "Time spent handling web API requests"});
+
+    private final boolean enabled;
+    // Family -> label value -> histogram, labels sorted so scrapes are stable
+    private final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    public Metrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // For call sites that pick their histogram at the end; pass the result to LatencyHistogram.stop
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public LatencyHistogram histogram(String family, String label) {
+        if (!enabled) return LatencyHistogram.DISABLED;
+        if (!FAMILIES.containsKey(family)) {
+            throw new IllegalArgumentException("Unknown metric family " + family);
+        }
+
+        return histograms.computeIfAbsent(family, key -> new ConcurrentSkipListMap<>())
+            .computeIfAbsent(label, key -> new LatencyHistogram(true));
+    }
+
+    public void write(PrometheusText text) {
+        for (String family : new String[] {EVENT_HANDLER, DATABASE_OPERATION, LIVE_DATA_CYCLE, HTTP_REQUEST}) {
+            Map<String, LatencyHistogram> byLabel = histograms.get(family);
+            if (byLabel == null) continue;
+
+            String[] definition = FAMILIES.get(family);
+            text.family(family, "histogram", definition[1]);
+            byLabel.forEach((label, histogram) ->
+                histogram.write(text, family, PrometheusText.label(definition[0], label)));
+        }
+    }
+}
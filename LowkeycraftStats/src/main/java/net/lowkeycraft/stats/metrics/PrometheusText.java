@@ -0,0 +1,35 @@
+package net.lowkeycraft.stats.metrics;
+
+// Builds a response in the Prometheus text exposition format (version 0.0.4)
+public class PrometheusText {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder text = new StringBuilder(16384);
+
+    public PrometheusText family(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    // labels is either empty or a complete {name="value",...} block
+    public PrometheusText sample(String name, String labels, long value) {
+        text.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusText sample(String name, String labels, double value) {
+        text.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
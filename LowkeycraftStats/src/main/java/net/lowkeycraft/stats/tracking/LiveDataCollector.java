@@ -0,0 +1,103 @@
+package net.lowkeycraft.stats.tracking;
+
+import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.LiveDataSnapshot;
+import net.lowkeycraft.stats.metrics.LatencyHistogram;
+import net.lowkeycraft.stats.metrics.Metrics;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Live data pipeline. Snapshots of online players are taken on the main thread within a per-tick
+// time budget, spreading big servers over several ticks, then written as one batch off the main thread.
+public class LiveDataCollector {
+
+    private final LowkeycraftStats plugin;
+    private final long budgetNanos;
+    private final LatencyHistogram collectTimer;
+    private final LatencyHistogram cycleTimer;
+
+    private final Deque<Player> remaining = new ArrayDeque<>();
+    private List<LiveDataSnapshot> snapshots;
+    private BukkitTask cycleTask;
+    private BukkitTask timerTask;
+    private long cycleStart;
+
+    public LiveDataCollector(LowkeycraftStats plugin) {
+        this.plugin = plugin;
+        this.budgetNanos = (long) (plugin.getConfigManager().getSnapshotBudgetMillis() * 1_000_000L);
+        this.collectTimer = plugin.getMetrics().histogram(Metrics.LIVE_DATA_CYCLE, "collect_tick");
+        this.cycleTimer = plugin.getMetrics().histogram(Metrics.LIVE_DATA_CYCLE, "cycle");
+    }
+
+    public void start() {
+        long interval = 20L * plugin.getConfigManager().getUpdateInterval(); // Convert seconds to ticks
+        timerTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::startCycle, interval, interval);
+    }
+
+    public void stop() {
+        if (timerTask != null) {
+            timerTask.cancel();
+        }
+        if (cycleTask != null) {
+            cycleTask.cancel();
+            cycleTask = null;
+        }
+        remaining.clear();
+    }
+
+    private void startCycle() {
+        if (!plugin.getConfigManager().isHealthFoodTracked() && !plugin.getConfigManager().isLocationTracked()) return;
+
+        // The previous cycle is still collecting, let it finish first
+        if (cycleTask != null) {
+            if (plugin.getConfigManager().isDebugEnabled()) {
+                plugin.getLogger().info("Live data cycle still running, skipping this interval");
+            }
+            return;
+        }
+
+        remaining.addAll(plugin.getServer().getOnlinePlayers());
+        if (remaining.isEmpty()) return;
+
+        snapshots = new ArrayList<>(remaining.size());
+        cycleStart = cycleTimer.start();
+        cycleTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::collect, 0L, 1L);
+    }
+
+    private void collect() {
+        long start = collectTimer.start();
+        try {
+            long deadline = System.nanoTime() + budgetNanos;
+
+            Player player;
+            while ((player = remaining.poll()) != null) {
+                if (player.isOnline()) {
+                    snapshots.add(LiveDataSnapshot.capture(player));
+                }
+
+                // Out of time for this tick, continue on the next one
+                if (System.nanoTime() >= deadline && !remaining.isEmpty()) return;
+            }
+
+            cycleTask.cancel();
+            cycleTask = null;
+
+            List<LiveDataSnapshot> batch = snapshots;
+            snapshots = null;
+            // A cycle lasts from the first snapshot until its batch is written; stream subscribers get it then
+            long cycle = cycleStart;
+            plugin.getDatabaseManager().updateLiveDataBatchAsync(batch)
+                .whenComplete((result, error) -> {
+                    cycleTimer.stop(cycle);
+                    plugin.getLiveStream().publishLive(batch);
+                });
+        } finally {
+            collectTimer.stop(start);
+        }
+    }
+}
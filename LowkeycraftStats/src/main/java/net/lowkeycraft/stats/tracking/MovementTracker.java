@@ -0,0 +1,99 @@
+package net.lowkeycraft.stats.tracking;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
+
+// Sums the distance each player moves in a primitive double per player.
+// Only used from the main thread; the totals are drained into the stat buffer on a timer.
+public class MovementTracker {
+
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final Map<UUID, Movement> movements = new HashMap<>();
+    private final long sampleIntervalNanos;
+
+    // With sampleTicks above zero a player's position is measured at most once per that many ticks,
+    // counting the straight line since the previous sample
+    public MovementTracker(int sampleTicks) {
+        this.sampleIntervalNanos = Math.max(0, sampleTicks) * NANOS_PER_TICK;
+    }
+
+    public void handleMove(Player player, Location from, Location to) {
+        double toX = to.getX();
+        double toY = to.getY();
+        double toZ = to.getZ();
+
+        // Looking around fires move events too, skip those without creating anything
+        if (from.getX() == toX && from.getY() == toY && from.getZ() == toZ) return;
+
+        Movement movement = movements.get(player.getUniqueId());
+        if (movement == null) {
+            movement = new Movement();
+            movement.moveTo(from.getWorld(), from.getX(), from.getY(), from.getZ());
+            movements.put(player.getUniqueId(), movement);
+        }
+
+        if (sampleIntervalNanos > 0) {
+            long now = System.nanoTime();
+            if (now - movement.lastSample < sampleIntervalNanos) return;
+            movement.lastSample = now;
+        }
+
+        World world = to.getWorld();
+        if (world == movement.world) {
+            double dx = toX - movement.x;
+            double dy = toY - movement.y;
+            double dz = toZ - movement.z;
+            movement.distance += Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        movement.moveTo(world, toX, toY, toZ);
+    }
+
+    // Moves the player's reference point without counting the distance, e.g. after a teleport
+    public void reset(Player player, Location location) {
+        Movement movement = movements.get(player.getUniqueId());
+        if (movement != null) {
+            movement.moveTo(location.getWorld(), location.getX(), location.getY(), location.getZ());
+        }
+    }
+
+    // Hands every non-zero total to the sink and starts counting from zero again
+    public void drain(ObjDoubleConsumer<UUID> sink) {
+        for (Map.Entry<UUID, Movement> entry : movements.entrySet()) {
+            Movement movement = entry.getValue();
+            if (movement.distance > 0) {
+                sink.accept(entry.getKey(), movement.distance);
+                movement.distance = 0;
+            }
+        }
+    }
+
+    // Stops tracking the player and returns their undrained distance
+    public double remove(UUID uuid) {
+        Movement movement = movements.remove(uuid);
+        return movement == null ? 0 : movement.distance;
+    }
+
+    private static final class Movement {
+        private World world;
+        private double x;
+        private double y;
+        private double z;
+        private long lastSample;
+        private double distance;
+
+        private void moveTo(World world, double x, double y, double z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
@@ -40,6 +40,54 @@ public class ConfigManager {
         return plugin.getConfig().getString("database.mysql.password", "password123");
     }
 
+    public String getSQLiteJournalMode() {
+        return plugin.getConfig().getString("database.sqlite.journal-mode", "WAL");
+    }
+
+    public String getSQLiteSynchronous() {
+        return plugin.getConfig().getString("database.sqlite.synchronous", "NORMAL");
+    }
+
+    public int getSQLiteCacheSize() {
+        return plugin.getConfig().getInt("database.sqlite.cache-size", -16000);
+    }
+
+    public long getSQLiteMmapSize() {
+        return plugin.getConfig().getLong("database.sqlite.mmap-size", 268435456L);
+    }
+
+    public int getSQLiteBusyTimeout() {
+        return plugin.getConfig().getInt("database.sqlite.busy-timeout", 5000);
+    }
+
+    public String getSQLiteTempStore() {
+        return plugin.getConfig().getString("database.sqlite.temp-store", "MEMORY");
+    }
+
+    public int getStatFlushInterval() {
+        return Math.max(1, plugin.getConfig().getInt("database.flush-interval", 5));
+    }
+
+    public int getPoolMaxSize() {
+        return Math.max(1, plugin.getConfig().getInt("database.pool.max-size", 10));
+    }
+
+    public long getPoolConnectionTimeout() {
+        return plugin.getConfig().getLong("database.pool.connection-timeout", 5000L);
+    }
+
+    public int getDatabaseExecutorThreads() {
+        return Math.max(1, plugin.getConfig().getInt("database.executor.threads", 4));
+    }
+
+    public int getDatabaseQueueCapacity() {
+        return Math.max(1, plugin.getConfig().getInt("database.executor.queue-capacity", 1000));
+    }
+
+    public long getDatabaseShutdownTimeout() {
+        return plugin.getConfig().getLong("database.executor.shutdown-timeout", 10000L);
+    }
+
     // Web server settings
     public boolean isWebServerEnabled() {
         return plugin.getConfig().getBoolean("web-server.enabled", true);
@@ -57,6 +105,60 @@ public class ConfigManager {
         return plugin.getConfig().getString("web-server.api-key", "");
     }
 
+    public int getPlayersPageSize() {
+        return plugin.getConfig().getInt("web-server.players-page-size", 100);
+    }
+
+    public int getPlayersMaxPageSize() {
+        return plugin.getConfig().getInt("web-server.players-max-page-size", 5000);
+    }
+
+    public int getBatchMaxPlayers() {
+        return plugin.getConfig().getInt("web-server.batch-max-players", 100);
+    }
+
+    // platform or virtual
+    public String getWebThreadMode() {
+        return plugin.getConfig().getString("web-server.threads.mode", "platform");
+    }
+
+    public int getWebMinThreads() {
+        return plugin.getConfig().getInt("web-server.threads.min", 8);
+    }
+
+    public int getWebMaxThreads() {
+        return plugin.getConfig().getInt("web-server.threads.max", 200);
+    }
+
+    public int getWebThreadIdleTimeout() {
+        return plugin.getConfig().getInt("web-server.threads.idle-timeout", 60);
+    }
+
+    public int getRequestTimeout() {
+        return plugin.getConfig().getInt("web-server.request-timeout", 5);
+    }
+
+    public boolean isCompressionEnabled() {
+        return plugin.getConfig().getBoolean("web-server.compression", true);
+    }
+
+    // Seconds clients may reuse a response from the route without asking again; 0 means always revalidate
+    public int getCacheMaxAge(String route, int defaultSeconds) {
+        return plugin.getConfig().getInt("web-server.cache-max-age." + route, defaultSeconds);
+    }
+
+    public int getStreamMaxSubscribers() {
+        return plugin.getConfig().getInt("web-server.stream.max-subscribers", 50);
+    }
+
+    public int getStreamBufferSize() {
+        return plugin.getConfig().getInt("web-server.stream.buffer-size", 256);
+    }
+
+    public int getStreamHeartbeat() {
+        return plugin.getConfig().getInt("web-server.stream.heartbeat", 15);
+    }
+
     // Tracking settings
     public boolean isInventoryTracked() {
         return plugin.getConfig().getBoolean("tracking.inventory", true);
@@ -74,6 +176,30 @@ public class ConfigManager {
         return plugin.getConfig().getInt("tracking.update-interval", 30);
     }
 
+    public double getSnapshotBudgetMillis() {
+        return plugin.getConfig().getDouble("tracking.snapshot-budget-ms", 1.0);
+    }
+
+    public double getPositionChangeThreshold() {
+        return plugin.getConfig().getDouble("tracking.change-thresholds.position", 0.5);
+    }
+
+    public double getHealthChangeThreshold() {
+        return plugin.getConfig().getDouble("tracking.change-thresholds.health", 0.5);
+    }
+
+    public double getSaturationChangeThreshold() {
+        return plugin.getConfig().getDouble("tracking.change-thresholds.saturation", 0.5);
+    }
+
+    public double getExperienceChangeThreshold() {
+        return plugin.getConfig().getDouble("tracking.change-thresholds.experience", 0.01);
+    }
+
+    public int getMovementSampleTicks() {
+        return plugin.getConfig().getInt("tracking.movement-sample-ticks", 0);
+    }
+
     // Statistics settings
     public boolean isPlaytimeTracked() {
         return plugin.getConfig().getBoolean("statistics.playtime", true);
@@ -119,6 +245,43 @@ public class ConfigManager {
         return plugin.getConfig().getBoolean("statistics.economy", false);
     }
 
+    // Leaderboard settings
+    public int getLeaderboardSize() {
+        return Math.max(1, plugin.getConfig().getInt("leaderboards.size", 100));
+    }
+
+    public int getLeaderboardDefaultLimit() {
+        return Math.max(1, plugin.getConfig().getInt("leaderboards.default-limit", 10));
+    }
+
+    // Profile cache settings
+    public int getProfileCacheSize() {
+        return plugin.getConfig().getInt("profile-cache.max-size", 1000);
+    }
+
+    public int getProfileCacheTtl() {
+        return plugin.getConfig().getInt("profile-cache.ttl", 30);
+    }
+
+    // Metrics settings
+    public boolean isMetricsEnabled() {
+        return plugin.getConfig().getBoolean("metrics.enabled", false);
+    }
+
+    // Profiler settings
+    public boolean isProfilerEnabled() {
+        return plugin.getConfig().getBoolean("profiler.enabled", false);
+    }
+
+    public int getProfilerSlowOperations() {
+        return plugin.getConfig().getInt("profiler.slow-operations", 20);
+    }
+
+    // Command settings
+    public int getStatsCooldown() {
+        return plugin.getConfig().getInt("commands.stats-cooldown", 3);
+    }
+
     // Messages
     public String getPrefix() {
         return ChatColor.translateAlternateColorCodes('&',
@@ -140,6 +303,11 @@ public class ConfigManager {
             plugin.getConfig().getString("messages.stats-header", "&6=== Stats for {player} ==="));
     }
 
+    public String getCooldownMessage() {
+        return ChatColor.translateAlternateColorCodes('&',
+            plugin.getConfig().getString("messages.cooldown", "&cPlease wait {seconds}s before using /stats again."));
+    }
+
     public String getReloadSuccessMessage() {
         return ChatColor.translateAlternateColorCodes('&',
             plugin.getConfig().getString("messages.reload-success", "&aConfiguration reloaded successfully!"));
@@ -0,0 +1,20 @@
+package net.lowkeycraft.stats.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// Dates as shown in chat and the web API. DateTimeFormatter is immutable, so one instance
+// serves the main thread and every web request thread
+public final class TimeFormat {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm")
+        .withZone(ZoneId.systemDefault());
+
+    private TimeFormat() {
+    }
+
+    public static String formatDate(long millis) {
+        return DATE.format(Instant.ofEpochMilli(millis));
+    }
+}
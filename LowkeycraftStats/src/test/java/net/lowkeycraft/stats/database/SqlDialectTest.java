@@ -0,0 +1,191 @@
+package net.lowkeycraft.stats.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The statements DatabaseManager builds from each SqlDialect, run against SQLite and against H2 in
+// MySQL mode standing in for a MySQL server. H2 enforces the player_stats foreign key like InnoDB, so a
+// flush for a player without a players row fails there unless the row is added first.
+class SqlDialectTest {
+
+    private static final List<String> PLAYER_COLUMNS = List.of("uuid", "username", "first_join", "last_seen", "is_online");
+
+    private SqlDialect sql;
+    private File databaseFile;
+    private Connection connection;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (databaseFile == null) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SHUTDOWN");
+            }
+        }
+        connection.close();
+        if (databaseFile != null) {
+            databaseFile.delete();
+        }
+    }
+
+    @Test
+    void sqlitePlayerUpsertKeepsFirstJoinAndPlaytime() throws Exception {
+        open("sqlite");
+        checkPlayerUpsert();
+    }
+
+    @Test
+    void mysqlPlayerUpsertKeepsFirstJoinAndPlaytime() throws Exception {
+        open("mysql");
+        checkPlayerUpsert();
+    }
+
+    @Test
+    void sqliteStatFlushAddsDeltas() throws Exception {
+        open("sqlite");
+        checkStatFlush();
+    }
+
+    @Test
+    void mysqlStatFlushAddsDeltas() throws Exception {
+        open("mysql");
+        checkStatFlush();
+    }
+
+    private void open(String type) throws Exception {
+        sql = SqlDialect.forType(type);
+        if (type.equals("sqlite")) {
+            databaseFile = File.createTempFile("lowkeycraft-dialect", ".db");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        } else {
+            connection = DriverManager.getConnection("jdbc:h2:mem:lowkeycraft-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE players (uuid VARCHAR(36) PRIMARY KEY, username VARCHAR(16) NOT NULL, " +
+                "first_join BIGINT NOT NULL, last_seen BIGINT NOT NULL, playtime BIGINT DEFAULT 0, is_online BOOLEAN DEFAULT FALSE)");
+
+            StringBuilder statsTable = new StringBuilder("CREATE TABLE player_stats (uuid VARCHAR(36) PRIMARY KEY");
+            for (Stat stat : Stat.values()) {
+                statsTable.append(", ").append(stat.getColumn()).append(stat.isFractional() ? " DOUBLE DEFAULT 0" : " INT DEFAULT 0");
+            }
+            stmt.execute(statsTable.append(", FOREIGN KEY (uuid) REFERENCES players(uuid))").toString());
+        }
+    }
+
+    private void checkPlayerUpsert() throws SQLException {
+        String upsertPlayer = sql.upsert("players", "uuid", PLAYER_COLUMNS, List.of("username", "last_seen", "is_online"), List.of());
+
+        try (PreparedStatement stmt = connection.prepareStatement(upsertPlayer)) {
+            bindPlayer(stmt, "Steve", 1000);
+            stmt.executeUpdate();
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE players SET playtime = 5000, is_online = FALSE WHERE uuid = 'steve'");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(upsertPlayer)) {
+            bindPlayer(stmt, "Alex", 2000);
+            stmt.executeUpdate();
+        }
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM players WHERE uuid = 'steve'")) {
+            assertTrue(rs.next());
+            assertEquals("Alex", rs.getString("username"));
+            assertEquals(1000, rs.getLong("first_join"));
+            assertEquals(2000, rs.getLong("last_seen"));
+            assertEquals(5000, rs.getLong("playtime"));
+            assertTrue(rs.getBoolean("is_online"));
+        }
+    }
+
+    // Twice for an existing row, once for a player without any rows yet
+    private void checkStatFlush() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql.upsert("players", "uuid", PLAYER_COLUMNS,
+            List.of("username", "last_seen", "is_online"), List.of()))) {
+            bindPlayer(stmt, "Steve", 1000);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(sql.insertIgnore("player_stats", List.of("uuid")))) {
+            stmt.setString(1, "steve");
+            stmt.executeUpdate();
+            stmt.executeUpdate();
+        }
+
+        flush("steve", "Steve", 2);
+        flush("steve", "Steve", 2);
+        flush("missing", "missing", 2);
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT uuid, deaths, distance_traveled FROM player_stats ORDER BY uuid")) {
+            assertTrue(rs.next());
+            assertEquals("missing", rs.getString("uuid"));
+            assertEquals(2, rs.getInt("deaths"));
+            assertEquals(1.5, rs.getDouble("distance_traveled"), 0);
+
+            assertTrue(rs.next());
+            assertEquals(4, rs.getInt("deaths"));
+            assertEquals(3.0, rs.getDouble("distance_traveled"), 0);
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT uuid, username, first_join FROM players ORDER BY uuid")) {
+            assertTrue(rs.next());
+            assertEquals("missing", rs.getString("username"));
+
+            assertTrue(rs.next());
+            assertEquals("Steve", rs.getString("username"));
+            assertEquals(1000, rs.getLong("first_join"));
+        }
+    }
+
+    // One stat flush transaction as DatabaseManager writes it: the players row where missing, then the deltas
+    private void flush(String uuid, String username, long amount) throws SQLException {
+        List<String> statColumns = new ArrayList<>();
+        for (Stat stat : Stat.values()) {
+            statColumns.add(stat.getColumn());
+        }
+        List<String> columns = new ArrayList<>();
+        columns.add("uuid");
+        columns.addAll(statColumns);
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement players = connection.prepareStatement(
+                 sql.insertIgnore("players", List.of("uuid", "username", "first_join", "last_seen")));
+             PreparedStatement stats = connection.prepareStatement(sql.upsert("player_stats", "uuid", columns, List.of(), statColumns))) {
+            players.setString(1, uuid);
+            players.setString(2, username);
+            players.setLong(3, 3000);
+            players.setLong(4, 3000);
+            players.executeUpdate();
+
+            stats.setString(1, uuid);
+            for (Stat stat : Stat.values()) {
+                if (stat.isFractional()) {
+                    stats.setDouble(stat.ordinal() + 2, 1.5);
+                } else {
+                    stats.setLong(stat.ordinal() + 2, amount);
+                }
+            }
+            stats.addBatch();
+            stats.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void bindPlayer(PreparedStatement stmt, String username, long time) throws SQLException {
+        stmt.setString(1, "steve");
+        stmt.setString(2, username);
+        stmt.setLong(3, time);
+        stmt.setLong(4, time);
+        stmt.setBoolean(5, true);
+    }
+}
@@ -0,0 +1,98 @@
+package net.lowkeycraft.stats.listeners;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.lowkeycraft.stats.LowkeycraftStats;
+import net.lowkeycraft.stats.database.Stat;
+import org.bukkit.Location;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Events go through the plugin manager like on a server, so each one reaches only the handlers
+// registered for its own HandlerList
+class PlayerListenerTest {
+
+    private ServerMock server;
+    private WorldMock world;
+    private LowkeycraftStats plugin;
+    private PlayerMock player;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = MockBukkit.mock();
+        world = server.addSimpleWorld("world");
+
+        // MockBukkit hands the plugin this folder, so the config is in place before onEnable runs.
+        // The database is a temp SQLite file and the web server stays off.
+        PluginDescriptionFile description;
+        try (InputStream in = LowkeycraftStats.class.getClassLoader().getResourceAsStream("plugin.yml")) {
+            description = new PluginDescriptionFile(in);
+        }
+        File dataFolder = server.getPluginManager()
+            .createTemporaryDirectory(description.getName() + "-" + description.getVersion());
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("web-server.enabled", false);
+        config.save(new File(dataFolder, "config.yml"));
+
+        plugin = MockBukkit.load(LowkeycraftStats.class);
+        player = server.addPlayer("player0");
+        awaitWrites();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void teleportAddsNoDistance() {
+        call(new PlayerMoveEvent(player, at(0), at(1)));
+        call(new PlayerTeleportEvent(player, at(1), at(1000)));
+        call(new PlayerMoveEvent(player, at(1000), at(1002)));
+
+        assertEquals(3.0, distanceAfterQuit(), 1e-9);
+    }
+
+    @Test
+    void respawnAddsNoDistance() {
+        call(new PlayerMoveEvent(player, at(0), at(1)));
+        call(new PlayerRespawnEvent(player, at(5000), false));
+        call(new PlayerMoveEvent(player, at(5000), at(5001)));
+
+        assertEquals(2.0, distanceAfterQuit(), 1e-9);
+    }
+
+    private void call(Event event) {
+        server.getPluginManager().callEvent(event);
+    }
+
+    private Location at(double x) {
+        return new Location(world, x, 64, 0);
+    }
+
+    // Quitting hands the tracked distance to the stat buffer and flushes it
+    private double distanceAfterQuit() {
+        player.disconnect();
+        awaitWrites();
+        return plugin.getDatabaseManager().getPlayerData(player.getName()).stat(Stat.DISTANCE_TRAVELED);
+    }
+
+    // The writer is a single thread, so an empty task finishes after everything queued before it
+    private void awaitWrites() {
+        plugin.getDatabaseManager().getWriteExecutor().run(() -> {}).join();
+    }
+}